@@ -32,6 +32,34 @@ public interface AstParsingConfig {
         return Collections.emptyList();
     }
 
+    /**
+     * @return 构建AST索引时解析文件的并行度，不大于1时单线程解析
+     */
+    default int getIndexingParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return AST磁盘缓存目录，为null时不使用缓存；启用后未修改的文件在重启时直接从缓存加载AST，无需重新解析
+     */
+    default Path getAstCachePath() {
+        return null;
+    }
+
+    /**
+     * @return 是否监听源码变更并增量更新AST索引
+     */
+    default boolean enableWatchMode() {
+        return false;
+    }
+
+    /**
+     * @return 方法解析结果缓存的最大权重；缓存的是入口方法的完整调用图，权重为图中的方法数，超出后淘汰最近最少使用的调用图
+     */
+    default long getMethodCacheMaximumWeight() {
+        return 1_000_000;
+    }
+
     default boolean shouldParseDependency() {
         return false;
     }
@@ -4,12 +4,14 @@ import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.resolution.TypeSolver;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
-import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import io.github.yuanbug.drawer.domain.CodeModule;
 import io.github.yuanbug.drawer.domain.ast.AstIndex;
+import io.github.yuanbug.drawer.domain.ast.AstIndexCache;
+import io.github.yuanbug.drawer.domain.ast.AstIndexWatcher;
 import io.github.yuanbug.drawer.domain.ast.JavaFileAstInfo;
+import io.github.yuanbug.drawer.parser.solver.ProjectTypeSolver;
 import io.github.yuanbug.drawer.utils.SearchUtils;
 import io.github.yuanbug.drawer.utils.StopwatchTimer;
 import lombok.extern.slf4j.Slf4j;
@@ -17,9 +19,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Optional;
+import java.io.File;
+import java.util.*;
 
 /**
  * @author yuanbug
@@ -37,8 +38,8 @@ public class AutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(TypeSolver.class)
     public TypeSolver javaParserTypeSolver(AstParsingConfig parsingConfig) {
-        CombinedTypeSolver typeSolver = new CombinedTypeSolver(new ReflectionTypeSolver(true));
-        parsingConfig.getModules().forEach(module -> typeSolver.add(new JavaParserTypeSolver(module.getSrcMainJavaPath())));
+        ProjectTypeSolver typeSolver = new ProjectTypeSolver(new ReflectionTypeSolver(true));
+        parsingConfig.getModules().forEach(module -> typeSolver.addSourceRoot(module.getSrcMainJavaPath()));
         parsingConfig.getJarPaths().forEach(jarPath -> {
             try {
                 typeSolver.add(new JarTypeSolver(jarPath));
@@ -46,6 +47,7 @@ public class AutoConfiguration {
                 log.error("加载jar包出错 {}", jarPath, e);
             }
         });
+        log.info("类型解析路由表共登记{}个包", typeSolver.getRoutedPackageCount());
         return typeSolver;
     }
 
@@ -61,9 +63,16 @@ public class AutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(AstIndex.class)
     public AstIndex astIndexContext(AstParsingConfig parsingConfig, JavaParser javaParser, TypeSolver javaParserTypeSolver) {
-        AstIndex astIndex = new AstIndex(javaParser, javaParserTypeSolver);
+        AstIndexCache astIndexCache = Optional.ofNullable(parsingConfig.getAstCachePath())
+                .map(cachePath -> new AstIndexCache(cachePath, javaParser.getParserConfiguration()))
+                .orElse(null);
+        AstIndex astIndex = new AstIndex(javaParser, javaParserTypeSolver, astIndexCache);
+        if (javaParserTypeSolver instanceof ProjectTypeSolver projectTypeSolver) {
+            astIndex.addChangeListener(change -> projectTypeSolver.invalidate(change.getFiles()));
+        }
         log.info("开始构建AST索引");
         StopwatchTimer timer = StopwatchTimer.start();
+        Map<File, CodeModule> javaFiles = new LinkedHashMap<>(256);
         parsingConfig.getModules().forEach(
                 module -> SearchUtils.bfsAll(
                                 module.srcMainJavaPath.toFile(),
@@ -72,9 +81,14 @@ public class AutoConfiguration {
                                         ? Optional.ofNullable(file.listFiles()).map(Arrays::asList).orElseGet(Collections::emptyList)
                                         : Collections.emptyList()
                         )
-                        .forEach(javaFile -> astIndex.addFileToIndex(javaFile, module))
+                        .forEach(javaFile -> javaFiles.put(javaFile, module))
         );
+        astIndex.addFilesToIndex(javaFiles, parsingConfig.getIndexingParallelism());
         astIndex.seal();
+        if (null != astIndexCache) {
+            astIndexCache.flush(javaFiles.keySet());
+            log.info("AST缓存命中{}个文件，未命中{}个文件", astIndexCache.getHitCount(), astIndexCache.getMissCount());
+        }
         var classNameToFileInfo = astIndex.getClassNameToFileInfo();
         int moduleNum = parsingConfig.getModules().size();
         long fileNum = classNameToFileInfo.values().stream()
@@ -86,4 +100,14 @@ public class AutoConfiguration {
         return astIndex;
     }
 
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(AstIndexWatcher.class)
+    public AstIndexWatcher astIndexWatcher(AstParsingConfig parsingConfig, AstIndex astIndex) {
+        AstIndexWatcher watcher = new AstIndexWatcher(astIndex, parsingConfig.getModules());
+        if (parsingConfig.enableWatchMode()) {
+            watcher.start();
+        }
+        return watcher;
+    }
+
 }
@@ -14,17 +14,27 @@ import com.github.javaparser.resolution.declarations.ResolvedTypeParameterDeclar
 import com.github.javaparser.resolution.types.ResolvedReferenceType;
 import com.github.javaparser.resolution.types.ResolvedType;
 import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionClassDeclaration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import io.github.yuanbug.drawer.domain.CodeModule;
 import io.github.yuanbug.drawer.utils.AstUtils;
 import io.github.yuanbug.drawer.utils.MiscUtils;
 import io.github.yuanbug.drawer.utils.PrimitiveTypeUtils;
 import io.github.yuanbug.drawer.utils.ReflectUtils;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.*;
@@ -39,48 +49,339 @@ public class AstIndex {
     /**
      * 类限定名 -> 文件AST信息
      */
-    private Map<String, JavaFileAstInfo> classNameToFileInfo = new HashMap<>(16);
+    @Getter(AccessLevel.NONE)
+    private final Map<String, JavaFileAstInfo> classNameToFileInfo = new ConcurrentHashMap<>(16);
     /**
      * Java文件 -> 所在文件AST信息
      */
-    private Map<File, JavaFileAstInfo> fileToFileInfo = new HashMap<>(16);
+    @Getter(AccessLevel.NONE)
+    private final Map<File, JavaFileAstInfo> fileToFileInfo = new ConcurrentHashMap<>(16);
+    /**
+     * 类限定名 -> 类型声明，包括内部类
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, TypeDeclaration<?>> classNameToType = new ConcurrentHashMap<>(16);
+    /**
+     * 包名 -> 简单类名 -> 类限定名，只包括顶层类型，用于解析同包类型和按需导入
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Map<String, String>> packageToTypeNames = new ConcurrentHashMap<>(16);
+    /**
+     * 类限定名 -> 直接父类型的类限定名
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Set<String>> directSuperTypeNames = new ConcurrentHashMap<>(16);
+    /**
+     * 类限定名 -> 直接子类型的类限定名，包括类、接口、枚举和record
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Set<String>> directSubTypeNames = new ConcurrentHashMap<>(16);
+
+    /**
+     * 类限定名 -> 该类型的所有父类型
+     */
+    @Getter(AccessLevel.NONE)
+    private final Cache<String, Map<String, JavaTypeInfo>> typeNameToParentTypes = CacheBuilder.newBuilder().recordStats().build();
+    /**
+     * 类型描述（可能带泛型参数） -> 该类型本身及其所有父类型
+     */
+    @Getter(AccessLevel.NONE)
+    private final Cache<String, Map<String, JavaTypeInfo>> typeDescribeToParentTypes = CacheBuilder.newBuilder().recordStats().build();
+
+    /**
+     * 类名 -> 类型解析结果，解析失败的也会缓存，避免反复抛出UnsolvedSymbolException
+     */
+    @Getter(AccessLevel.NONE)
+    private final Cache<String, SolvedType> typeNameToSolvedType = CacheBuilder.newBuilder()
+            .maximumSize(16384)
+            .recordStats()
+            .build();
+
+    @Getter(AccessLevel.NONE)
+    private final LongAdder solveTypeSavedExceptions = new LongAdder();
+
+    /**
+     * 父子类型索引需要符号解析，比较耗时，首次使用时再构建
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile boolean inheritanceIndexed = false;
+
+    /**
+     * 封存后只能通过 {@link #reindexFile} 和 {@link #removeFileFromIndex} 修改索引
+     */
+    private volatile boolean sealed = false;
+
+    @Getter(AccessLevel.NONE)
+    private final List<Consumer<AstIndexChange>> changeListeners = new CopyOnWriteArrayList<>();
 
     private final JavaParser javaParser;
     private final TypeSolver typeSolver;
 
+    /**
+     * JavaParser实例内部会复用词法分析器，不是线程安全的，所以每个线程使用独立的实例（共用同一份配置）
+     */
+    private final ThreadLocal<JavaParser> threadLocalParser;
+
+    /**
+     * AST磁盘缓存，为null时不使用缓存
+     */
+    private final AstIndexCache astIndexCache;
+
     public AstIndex(JavaParser javaParser, TypeSolver typeSolver) {
+        this(javaParser, typeSolver, null);
+    }
+
+    public AstIndex(JavaParser javaParser, TypeSolver typeSolver, AstIndexCache astIndexCache) {
         this.javaParser = javaParser;
         this.typeSolver = typeSolver;
+        this.astIndexCache = astIndexCache;
+        this.threadLocalParser = ThreadLocal.withInitial(() -> new JavaParser(javaParser.getParserConfiguration()));
     }
 
     public void seal() {
-        this.classNameToFileInfo = Collections.unmodifiableMap(classNameToFileInfo);
-        this.fileToFileInfo = Collections.unmodifiableMap(fileToFileInfo);
+        this.sealed = true;
+        invalidateCaches();
+    }
+
+    public Map<String, JavaFileAstInfo> getClassNameToFileInfo() {
+        return Collections.unmodifiableMap(classNameToFileInfo);
+    }
+
+    public Map<File, JavaFileAstInfo> getFileToFileInfo() {
+        return Collections.unmodifiableMap(fileToFileInfo);
+    }
+
+    /**
+     * 注册索引变更的监听器，用于让依赖索引的缓存失效
+     */
+    public void addChangeListener(Consumer<AstIndexChange> listener) {
+        changeListeners.add(listener);
     }
 
     /**
      * 把文件添加到索引
      */
     public void addFileToIndex(File javaFile, CodeModule ofModule) {
-        CompilationUnit ast = AstUtils.parseAst(javaFile, javaParser);
-        if (null == ast) {
+        checkNotSealed();
+        putToIndex(parseFile(javaFile, ofModule));
+    }
+
+    /**
+     * 重新解析文件并更新索引，文件是新增的也可以使用
+     *
+     * @apiNote 解析失败时抛出异常，索引保持不变
+     */
+    public synchronized void reindexFile(File javaFile, CodeModule ofModule) {
+        ParsedFile parsedFile = parseFile(javaFile, ofModule);
+        JavaFileAstInfo oldInfo = fileToFileInfo.get(javaFile);
+        Set<String> typeNames = findTypeNamesOfFile(oldInfo);
+        if (null == parsedFile) {
+            removeFromIndex(javaFile, oldInfo, typeNames);
+        } else {
+            putToIndex(parsedFile);
+            // 新文件中已经没有的类型
+            removeFromIndex(null, oldInfo, typeNames.stream().filter(typeName -> !parsedFile.types().containsKey(typeName)).collect(toSet()));
+            typeNames.addAll(parsedFile.types().keySet());
+        }
+        invalidateCaches();
+        refreshInheritance(typeNames);
+        fireChange(javaFile, typeNames);
+    }
+
+    /**
+     * 把已删除的文件移出索引
+     */
+    public synchronized void removeFileFromIndex(File javaFile) {
+        JavaFileAstInfo oldInfo = fileToFileInfo.get(javaFile);
+        if (null == oldInfo) {
             return;
         }
-        var typeDeclarations = ast.findAll(TypeDeclaration.class);
-        if (typeDeclarations.isEmpty()) {
+        Set<String> typeNames = findTypeNamesOfFile(oldInfo);
+        removeFromIndex(javaFile, oldInfo, typeNames);
+        invalidateCaches();
+        refreshInheritance(typeNames);
+        fireChange(javaFile, typeNames);
+    }
+
+    private Set<String> findTypeNamesOfFile(JavaFileAstInfo info) {
+        if (null == info) {
+            return new HashSet<>();
+        }
+        return classNameToFileInfo.entrySet().stream()
+                .filter(kv -> kv.getValue() == info)
+                .map(Map.Entry::getKey)
+                .collect(toCollection(HashSet::new));
+    }
+
+    private void removeFromIndex(File javaFile, JavaFileAstInfo oldInfo, Set<String> typeNames) {
+        for (String typeName : typeNames) {
+            if (classNameToFileInfo.remove(typeName, oldInfo)) {
+                unindexPackage(typeName, classNameToType.remove(typeName));
+            }
+        }
+        if (null != javaFile) {
+            fileToFileInfo.remove(javaFile, oldInfo);
+        }
+    }
+
+    private void fireChange(File javaFile, Set<String> typeNames) {
+        AstIndexChange change = AstIndexChange.builder()
+                .files(Set.of(javaFile))
+                .typeNames(Collections.unmodifiableSet(typeNames))
+                .build();
+        for (Consumer<AstIndexChange> listener : changeListeners) {
+            try {
+                listener.accept(change);
+            } catch (Exception e) {
+                log.error("处理AST索引变更出错 {}", javaFile, e);
+            }
+        }
+    }
+
+    private void checkNotSealed() {
+        if (sealed) {
+            throw new IllegalStateException("AST索引已封存，请使用reindexFile更新");
+        }
+    }
+
+    /**
+     * 把多个文件添加到索引
+     *
+     * @param javaFiles   Java文件 -> 所在模块，按遍历顺序排列
+     * @param parallelism 并行度，不大于1时在当前线程逐个解析
+     * @apiNote 解析过程并行执行，写入索引时仍按 javaFiles 的顺序进行，所以结果与逐个调用 {@link #addFileToIndex} 一致
+     */
+    public void addFilesToIndex(Map<File, CodeModule> javaFiles, int parallelism) {
+        checkNotSealed();
+        if (parallelism <= 1) {
+            javaFiles.forEach(this::addFileToIndex);
             return;
         }
-        JavaFileAstInfo info = JavaFileAstInfo.builder()
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> javaFiles.entrySet().parallelStream()
+                            .map(kv -> parseFile(kv.getKey(), kv.getValue()))
+                            .toList())
+                    .get()
+                    .forEach(this::putToIndex);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("构建AST索引被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("构建AST索引出错", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ParsedFile parseFile(File javaFile, CodeModule ofModule) {
+        AstIndexCache.CachedAst cachedAst = null == astIndexCache ? null : astIndexCache.load(javaFile).orElse(null);
+        if (null != cachedAst) {
+            List<TypeDeclaration<?>> typeDeclarations = findAllTypes(cachedAst.ast());
+            if (typeDeclarations.size() == cachedAst.typeNames().size()) {
+                return new ParsedFile(buildFileInfo(javaFile, ofModule, cachedAst.ast(), cachedAst.contentHash()), nameTypes(cachedAst.typeNames(), typeDeclarations));
+            }
+        }
+        if (!javaFile.exists()) {
+            return null;
+        }
+        // 解析和记录内容哈希用同一份内容，之后文件再被修改也不会让哈希与AST不一致
+        AstIndexCache.FileSnapshot snapshot = AstIndexCache.snapshot(javaFile);
+        CompilationUnit ast = AstUtils.parseAst(javaFile, snapshot.content(), threadLocalParser.get());
+        if (null == ast) {
+            return null;
+        }
+        List<TypeDeclaration<?>> typeDeclarations = findAllTypes(ast);
+        if (typeDeclarations.isEmpty()) {
+            return null;
+        }
+        List<String> typeNames = typeDeclarations.stream()
+                .map(AstUtils::getName)
+                .toList();
+        if (null != astIndexCache) {
+            astIndexCache.save(javaFile, snapshot, ast, typeNames);
+        }
+        return new ParsedFile(buildFileInfo(javaFile, ofModule, ast, snapshot.contentHash()), nameTypes(typeNames, typeDeclarations));
+    }
+
+    private static List<TypeDeclaration<?>> findAllTypes(CompilationUnit ast) {
+        return ast.findAll(MiscUtils.castClass(TypeDeclaration.class));
+    }
+
+    /**
+     * 把类限定名和方法表记录到类型声明节点上，之后 {@link AstUtils#getName(TypeDeclaration)} 无需再进行符号解析
+     */
+    private static Map<String, TypeDeclaration<?>> nameTypes(List<String> typeNames, List<TypeDeclaration<?>> typeDeclarations) {
+        Map<String, TypeDeclaration<?>> types = new LinkedHashMap<>(typeNames.size() * 2);
+        for (int i = 0; i < typeNames.size(); i++) {
+            TypeDeclaration<?> typeDeclaration = typeDeclarations.get(i);
+            typeDeclaration.setData(AstUtils.TYPE_NAME_KEY, typeNames.get(i));
+            MethodTable.attachTo(typeDeclaration);
+            types.putIfAbsent(typeNames.get(i), typeDeclaration);
+        }
+        return types;
+    }
+
+    private JavaFileAstInfo buildFileInfo(File javaFile, CodeModule ofModule, CompilationUnit ast, String contentHash) {
+        return JavaFileAstInfo.builder()
                 .file(javaFile)
                 .ast(ast)
+                .contentHash(contentHash)
                 .moduleName(ofModule.name)
+                .importTable(ImportTable.attachTo(ast, this::findTypeNameInPackage))
                 .build();
-        for (TypeDeclaration<?> typeDeclaration : typeDeclarations) {
-            classNameToFileInfo.put(AstUtils.getName(typeDeclaration), info);
+    }
+
+    private void putToIndex(ParsedFile parsedFile) {
+        if (null == parsedFile) {
+            return;
+        }
+        JavaFileAstInfo info = parsedFile.info();
+        parsedFile.types().forEach((typeName, typeDeclaration) -> {
+            classNameToType.put(typeName, typeDeclaration);
+            classNameToFileInfo.put(typeName, info);
+            indexPackage(typeName, typeDeclaration);
+        });
+        fileToFileInfo.put(info.getFile(), info);
+    }
+
+    private void indexPackage(String typeName, TypeDeclaration<?> type) {
+        if (!type.isTopLevelType()) {
+            return;
         }
-        fileToFileInfo.put(javaFile, info);
+        packageToTypeNames.computeIfAbsent(getPackageName(typeName, type), key -> new ConcurrentHashMap<>(16)).put(type.getNameAsString(), typeName);
+    }
+
+    private void unindexPackage(String typeName, TypeDeclaration<?> type) {
+        if (null == type || !type.isTopLevelType()) {
+            return;
+        }
+        packageToTypeNames.computeIfPresent(getPackageName(typeName, type), (packageName, typeNames) -> {
+            typeNames.remove(type.getNameAsString(), typeName);
+            return typeNames.isEmpty() ? null : typeNames;
+        });
+    }
+
+    private static String getPackageName(String typeName, TypeDeclaration<?> topLevelType) {
+        int simpleNameLength = topLevelType.getNameAsString().length();
+        return typeName.length() > simpleNameLength ? typeName.substring(0, typeName.length() - simpleNameLength - 1) : "";
+    }
+
+    /**
+     * 在索引中查找包内的顶层类型
+     *
+     * @param packageName 包名，默认包为空字符串
+     * @return 类限定名，找不到时返回null
+     */
+    public String findTypeNameInPackage(String packageName, String simpleName) {
+        return packageToTypeNames.getOrDefault(packageName, Collections.emptyMap()).get(simpleName);
     }
 
+    /**
+     * @param types 类限定名 -> 类型声明，按在文件中出现的顺序排列
+     */
+    private record ParsedFile(JavaFileAstInfo info, Map<String, TypeDeclaration<?>> types) {}
+
     /**
      * 通过类名获取文件的信息
      */
@@ -89,10 +390,7 @@ public class AstIndex {
     }
 
     public TypeDeclaration<?> getTypeDeclarationByClassName(String typeName) {
-        return Optional.ofNullable(classNameToFileInfo.get(typeName))
-                .map(JavaFileAstInfo::getAst)
-                .flatMap(ast -> ast.findFirst(TypeDeclaration.class, declaration -> typeName.equals(AstUtils.getName(declaration))))
-                .orElse(null);
+        return classNameToType.get(typeName);
     }
 
     /**
@@ -103,17 +401,32 @@ public class AstIndex {
     }
 
     public Optional<TypeDeclaration<?>> findTypeInIndex(String qualifiedName) {
-        return Optional.ofNullable(classNameToFileInfo.get(qualifiedName))
-                .map(JavaFileAstInfo::getAst)
-                .flatMap(ast -> ast.findFirst(MiscUtils.castClass(TypeDeclaration.class), declaration -> AstUtils.getName(declaration).equals(qualifiedName)));
+        return Optional.ofNullable(classNameToType.get(qualifiedName));
     }
 
     public Optional<TypeDeclaration<?>> findTypeInIndex(ResolvedReferenceTypeDeclaration declaration) {
         return findTypeInIndex(AstUtils.getName(declaration));
     }
 
+    /**
+     * 获取类型的所有父类型
+     *
+     * @return 类型名（可能带泛型参数） -> 类型信息，结果会被缓存，不可修改
+     */
     public Map<String, JavaTypeInfo> getAllParentTypes(TypeDeclaration<?> typeDeclaration) {
-        if ("java.lang.Object".equals(AstUtils.getName(typeDeclaration))) {
+        String typeName = AstUtils.getName(typeDeclaration);
+        // 不使用Cache.get(key, loader)，因为计算过程中会递归访问缓存
+        Map<String, JavaTypeInfo> cached = typeNameToParentTypes.getIfPresent(typeName);
+        if (null != cached) {
+            return cached;
+        }
+        Map<String, JavaTypeInfo> result = Collections.unmodifiableMap(computeAllParentTypes(typeName, typeDeclaration));
+        typeNameToParentTypes.put(typeName, result);
+        return result;
+    }
+
+    private Map<String, JavaTypeInfo> computeAllParentTypes(String typeName, TypeDeclaration<?> typeDeclaration) {
+        if ("java.lang.Object".equals(typeName)) {
             return Collections.emptyMap();
         }
         Map<String, JavaTypeInfo> result = new HashMap<>(8);
@@ -127,16 +440,38 @@ public class AstIndex {
         return result;
     }
 
+    /**
+     * 获取类型本身及其所有父类型
+     *
+     * @return 类型名（可能带泛型参数） -> 类型信息，结果会被缓存，不可修改
+     */
     public Map<String, JavaTypeInfo> getAllParentTypes(Type type) {
         // 借助符号解析器获取对应的实际类型
         ResolvedType resolvedType = AstUtils.tryResolve(type);
         if (null == resolvedType || !resolvedType.isReferenceType()) {
             return Collections.emptyMap();
         }
-        Map<String, JavaTypeInfo> result = new HashMap<>(8);
         ResolvedReferenceType referenceType = resolvedType.asReferenceType();
         // 获取名称（可能带泛型参数）
         String name = referenceType.describe();
+        Map<String, JavaTypeInfo> cached = typeDescribeToParentTypes.getIfPresent(name);
+        if (null != cached) {
+            return cached;
+        }
+        Map<String, JavaTypeInfo> result = Collections.unmodifiableMap(computeAllParentTypes(name, referenceType));
+        typeDescribeToParentTypes.put(name, result);
+        return result;
+    }
+
+    /**
+     * @return 父类型缓存的命中统计
+     */
+    public CacheStats getParentTypesCacheStats() {
+        return typeNameToParentTypes.stats().plus(typeDescribeToParentTypes.stats());
+    }
+
+    private Map<String, JavaTypeInfo> computeAllParentTypes(String name, ResolvedReferenceType referenceType) {
+        Map<String, JavaTypeInfo> result = new HashMap<>(8);
         // 获取类限定名
         String qualifiedName = AstUtils.getName(referenceType);
         // 从索引中取得父类型的声明，递归
@@ -257,17 +592,50 @@ public class AstIndex {
     }
 
     public Optional<ResolvedReferenceTypeDeclaration> trySolveReferenceTypeDeclaration(String typeName) {
+        SolvedType cached = typeNameToSolvedType.getIfPresent(typeName);
+        if (null != cached) {
+            if (cached.typeSolverFailed()) {
+                solveTypeSavedExceptions.increment();
+            }
+            return Optional.ofNullable(cached.declaration());
+        }
+        SolvedType solved = solveType(typeName);
+        typeNameToSolvedType.put(typeName, solved);
+        return Optional.ofNullable(solved.declaration());
+    }
+
+    private SolvedType solveType(String typeName) {
         try {
             // JavaParser的内部类限定名没有用美元符号，用的是点
-            return Optional.of(typeSolver.solveType(typeName.replace("$", ".")));
+            return new SolvedType(typeSolver.solveType(typeName.replace("$", ".")), false);
         } catch (Exception e) {
-            return Optional.ofNullable(getTypeDeclarationByClassName(typeName))
+            return new SolvedType(Optional.ofNullable(getTypeDeclarationByClassName(typeName))
                     .filter(ClassOrInterfaceDeclaration.class::isInstance)
                     .map(ClassOrInterfaceDeclaration.class::cast)
-                    .map(AstUtils::tryResolve);
+                    .map(AstUtils::tryResolve)
+                    .orElse(null), true);
         }
     }
 
+    /**
+     * @param typeSolverFailed 类型解析器是否抛出了异常
+     */
+    private record SolvedType(ResolvedReferenceTypeDeclaration declaration, boolean typeSolverFailed) {}
+
+    /**
+     * @return {@link #trySolveReferenceTypeDeclaration} 的缓存命中统计
+     */
+    public CacheStats getSolveTypeCacheStats() {
+        return typeNameToSolvedType.stats();
+    }
+
+    /**
+     * @return {@link #trySolveReferenceTypeDeclaration} 因命中缓存而免于抛出的异常数
+     */
+    public long getSolveTypeSavedExceptions() {
+        return solveTypeSavedExceptions.sum();
+    }
+
     public boolean isAssignable(ResolvedReferenceType expectedSuperType, String expectedSubTypeName) {
         if (AstUtils.getName(expectedSuperType).equals(expectedSubTypeName)) {
             return true;
@@ -353,18 +721,11 @@ public class AstIndex {
     }
 
     public Stream<TypeDeclaration<?>> getAllTypeDeclaration() {
-        return getClassNameToFileInfo().values().stream()
-                .map(JavaFileAstInfo::getAst)
-                .map(ast -> ast.findAll(TypeDeclaration.class))
-                .flatMap(Collection::stream)
-                .map(declaration -> (TypeDeclaration<?>) declaration);
+        return classNameToType.values().stream();
     }
 
     public <T extends TypeDeclaration<?>> Stream<T> getAllTypeDeclaration(Class<T> type) {
-        return getClassNameToFileInfo().values().stream()
-                .map(JavaFileAstInfo::getAst)
-                .map(ast -> ast.findAll(TypeDeclaration.class))
-                .flatMap(Collection::stream)
+        return classNameToType.values().stream()
                 .filter(type::isInstance)
                 .map(type::cast);
     }
@@ -381,6 +742,71 @@ public class AstIndex {
                 ));
     }
 
+    /**
+     * 获取直接子类型，包括类、接口、枚举和record
+     */
+    public List<TypeDeclaration<?>> getDirectSubTypes(String qualifiedName) {
+        return getDirectSubTypeNames(qualifiedName).stream()
+                .map(classNameToType::get)
+                .filter(Objects::nonNull)
+                .collect(toList());
+    }
+
+    public Set<String> getDirectSubTypeNames(String qualifiedName) {
+        ensureInheritanceIndexed();
+        return Collections.unmodifiableSet(directSubTypeNames.getOrDefault(qualifiedName, Collections.emptySet()));
+    }
+
+    private void ensureInheritanceIndexed() {
+        if (inheritanceIndexed) {
+            return;
+        }
+        synchronized (this) {
+            if (!inheritanceIndexed) {
+                classNameToType.forEach(this::indexInheritance);
+                inheritanceIndexed = true;
+            }
+        }
+    }
+
+    /**
+     * 父类型链上任何一个类型变化都会影响结果，无法只清除部分缓存
+     */
+    private void invalidateCaches() {
+        typeNameToParentTypes.invalidateAll();
+        typeDescribeToParentTypes.invalidateAll();
+        typeNameToSolvedType.invalidateAll();
+    }
+
+    private void refreshInheritance(Set<String> typeNames) {
+        if (!inheritanceIndexed) {
+            return;
+        }
+        typeNames.forEach(this::unindexInheritance);
+        typeNames.forEach(typeName -> findTypeInIndex(typeName).ifPresent(type -> indexInheritance(typeName, type)));
+    }
+
+    private void indexInheritance(String typeName, TypeDeclaration<?> type) {
+        List<ClassOrInterfaceType> extendedTypes = type instanceof NodeWithExtends<?> nodeWithExtends ? nodeWithExtends.getExtendedTypes() : Collections.emptyList();
+        List<ClassOrInterfaceType> implementedTypes = type instanceof NodeWithImplements<?> nodeWithImplements ? nodeWithImplements.getImplementedTypes() : Collections.emptyList();
+        Set<String> superTypeNames = Stream.concat(extendedTypes.stream(), implementedTypes.stream())
+                .map(AstUtils::getName)
+                .collect(toUnmodifiableSet());
+        directSuperTypeNames.put(typeName, superTypeNames);
+        superTypeNames.forEach(superTypeName -> directSubTypeNames.computeIfAbsent(superTypeName, key -> ConcurrentHashMap.newKeySet()).add(typeName));
+    }
+
+    private void unindexInheritance(String typeName) {
+        Set<String> superTypeNames = directSuperTypeNames.remove(typeName);
+        if (null == superTypeNames) {
+            return;
+        }
+        superTypeNames.forEach(superTypeName -> directSubTypeNames.computeIfPresent(superTypeName, (key, subTypeNames) -> {
+            subTypeNames.remove(typeName);
+            return subTypeNames.isEmpty() ? null : subTypeNames;
+        }));
+    }
+
     public String getModuleNameByTypeName(String typeName) {
         return Optional.ofNullable(classNameToFileInfo.get(typeName))
                 .map(JavaFileAstInfo::getModuleName)
@@ -0,0 +1,256 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.resolution.SymbolResolver;
+import com.github.javaparser.serialization.JavaParserJsonDeserializer;
+import com.github.javaparser.serialization.JavaParserJsonSerializer;
+import io.github.yuanbug.drawer.utils.HashUtils;
+import io.github.yuanbug.drawer.utils.JacksonUtils;
+import jakarta.json.Json;
+import jakarta.json.JsonReader;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * AST索引的磁盘缓存
+ * <p>
+ * 每个Java文件的AST以JSON形式单独存放，清单文件记录文件的路径、大小、修改时间、内容哈希和文件中声明的类型名。
+ * 大小和修改时间都没变时直接认为文件未修改，否则再比较内容哈希。
+ * <p>
+ * AST文件按路径和内容哈希命名，同名文件的内容不会变化。监听线程重新索引文件时只更新内存中的清单，
+ * 磁盘上的旧清单仍然指向旧内容对应的AST文件，旧AST文件在下次写入清单时才清理。
+ *
+ * @author yuanbug
+ */
+@Slf4j
+public class AstIndexCache {
+
+    /**
+     * 缓存格式版本，AST的序列化结果与javaparser版本相关，升级依赖后需要修改
+     */
+    private static final String FORMAT_VERSION = "javaparser-3.26.1#1";
+
+    private static final String MANIFEST_FILE_NAME = "manifest.json";
+
+    private static final String AST_DIR_NAME = "ast";
+
+    private final Path manifestPath;
+
+    private final Path astDir;
+
+    /**
+     * 反序列化得到的AST需要重新挂上符号解析器，可能为null
+     */
+    private final SymbolResolver symbolResolver;
+
+    /**
+     * 文件绝对路径 -> 缓存记录
+     */
+    private final Map<String, CachedFile> cachedFiles;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    public AstIndexCache(Path cacheDir, ParserConfiguration parserConfiguration) {
+        this.manifestPath = cacheDir.resolve(MANIFEST_FILE_NAME);
+        this.astDir = cacheDir.resolve(AST_DIR_NAME);
+        this.symbolResolver = parserConfiguration.getSymbolResolver().orElse(null);
+        this.cachedFiles = new ConcurrentHashMap<>(loadManifest(manifestPath));
+        try {
+            Files.createDirectories(astDir);
+        } catch (IOException e) {
+            throw new IllegalStateException("创建AST缓存目录出错 %s".formatted(astDir), e);
+        }
+    }
+
+    /**
+     * 从缓存加载未修改文件的AST，文件已修改或缓存不可用时返回empty
+     */
+    public Optional<CachedAst> load(File javaFile) {
+        CachedFile cachedFile = cachedFiles.get(javaFile.getAbsolutePath());
+        if (null == cachedFile || !isUnchanged(javaFile, cachedFile)) {
+            missCount.increment();
+            return Optional.empty();
+        }
+        try (Reader reader = Files.newBufferedReader(astDir.resolve(cachedFile.getAstFileName()));
+             JsonReader jsonReader = Json.createReader(reader)) {
+            CompilationUnit ast = (CompilationUnit) new JavaParserJsonDeserializer().deserializeObject(jsonReader);
+            ast.setStorage(javaFile.toPath());
+            if (null != symbolResolver) {
+                ast.setData(Node.SYMBOL_RESOLVER_KEY, symbolResolver);
+            }
+            hitCount.increment();
+            return Optional.of(new CachedAst(ast, cachedFile.getTypeNames(), cachedFile.getContentHash()));
+        } catch (Exception e) {
+            log.warn("读取AST缓存出错，将重新解析 {}", javaFile, e);
+            cachedFiles.remove(javaFile.getAbsolutePath());
+            missCount.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 读取文件内容用于解析，先记录修改时间再读内容，读取期间文件被修改时，下次加载会因修改时间不一致而比较内容哈希
+     */
+    public static FileSnapshot snapshot(File javaFile) {
+        long lastModified = javaFile.lastModified();
+        try {
+            byte[] content = Files.readAllBytes(javaFile.toPath());
+            return new FileSnapshot(content, lastModified, HashUtils.sha256(content));
+        } catch (IOException e) {
+            throw new IllegalStateException("读取文件出错 %s".formatted(javaFile), e);
+        }
+    }
+
+    /**
+     * 把文件的AST写入缓存
+     *
+     * @param snapshot 解析AST时使用的文件内容，记录的大小和哈希都来自它，而不是重新读取可能已被修改的文件
+     */
+    public void save(File javaFile, FileSnapshot snapshot, CompilationUnit ast, List<String> typeNames) {
+        String path = javaFile.getAbsolutePath();
+        String astFileName = HashUtils.sha256(path + "\n" + snapshot.contentHash()) + ".json";
+        try (Writer writer = Files.newBufferedWriter(astDir.resolve(astFileName))) {
+            new JavaParserJsonSerializer().serialize(ast, Json.createGenerator(writer));
+            cachedFiles.put(path, new CachedFile(path, snapshot.content().length, snapshot.lastModified(), snapshot.contentHash(), astFileName, List.copyOf(typeNames)));
+        } catch (Exception e) {
+            log.warn("写入AST缓存出错 {}", javaFile, e);
+            cachedFiles.remove(path);
+        }
+    }
+
+    /**
+     * 清理已不存在的文件和清单不再引用的AST文件，并把清单写入磁盘
+     */
+    public void flush(Collection<File> existingFiles) {
+        Set<String> existingPaths = existingFiles.stream().map(File::getAbsolutePath).collect(Collectors.toSet());
+        cachedFiles.values().removeIf(cachedFile -> !existingPaths.contains(cachedFile.getPath()));
+        try {
+            Files.writeString(manifestPath, JacksonUtils.toJsonString(new Manifest(FORMAT_VERSION, new ArrayList<>(cachedFiles.values()))));
+        } catch (IOException e) {
+            log.warn("写入AST缓存清单出错 {}", manifestPath, e);
+            return;
+        }
+        deleteUnreferencedAstFiles();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private void deleteUnreferencedAstFiles() {
+        Set<String> referenced = cachedFiles.values().stream().map(CachedFile::getAstFileName).collect(Collectors.toSet());
+        try (Stream<Path> astFiles = Files.list(astDir)) {
+            astFiles.filter(astFile -> !referenced.contains(astFile.getFileName().toString())).forEach(astFile -> {
+                try {
+                    Files.deleteIfExists(astFile);
+                } catch (IOException e) {
+                    log.warn("删除AST缓存出错 {}", astFile, e);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("清理AST缓存出错 {}", astDir, e);
+        }
+    }
+
+    private boolean isUnchanged(File javaFile, CachedFile cachedFile) {
+        if (!javaFile.exists()) {
+            return false;
+        }
+        long size = javaFile.length();
+        long lastModified = javaFile.lastModified();
+        if (size == cachedFile.getSize() && lastModified == cachedFile.getLastModified()) {
+            return true;
+        }
+        // 修改时间变了但内容没变（例如切换分支后又切回来），更新记录后继续使用缓存
+        if (size == cachedFile.getSize() && HashUtils.sha256(javaFile).equals(cachedFile.getContentHash())) {
+            cachedFile.setLastModified(lastModified);
+            return true;
+        }
+        return false;
+    }
+
+    private static Map<String, CachedFile> loadManifest(Path manifestPath) {
+        if (!Files.exists(manifestPath)) {
+            return Collections.emptyMap();
+        }
+        try {
+            Manifest manifest = JacksonUtils.parse(Files.readString(manifestPath), Manifest.class);
+            if (null == manifest || !FORMAT_VERSION.equals(manifest.getVersion()) || null == manifest.getFiles()) {
+                log.info("AST缓存版本不一致，将重新构建 {}", manifestPath);
+                return Collections.emptyMap();
+            }
+            return manifest.getFiles().stream().collect(Collectors.toMap(CachedFile::getPath, cachedFile -> cachedFile, (one, another) -> another));
+        } catch (Exception e) {
+            log.warn("读取AST缓存清单出错，将重新构建 {}", manifestPath, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * @param contentHash 缓存AST时文件内容的哈希
+     */
+    public record CachedAst(CompilationUnit ast, List<String> typeNames, String contentHash) {}
+
+    /**
+     * @param content      交给解析器的文件内容
+     * @param lastModified 读取内容之前的修改时间
+     * @param contentHash  content的SHA-256
+     */
+    public record FileSnapshot(byte[] content, long lastModified, String contentHash) {}
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class Manifest {
+
+        private String version;
+
+        private List<CachedFile> files;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class CachedFile {
+
+        private String path;
+
+        private long size;
+
+        private long lastModified;
+
+        private String contentHash;
+
+        private String astFileName;
+
+        /**
+         * 文件中声明的类型名，与 {@code ast.findAll(TypeDeclaration.class)} 的顺序一致
+         */
+        private List<String> typeNames;
+
+    }
+
+}
@@ -0,0 +1,30 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.File;
+import java.util.Set;
+
+/**
+ * AST索引的一次变更
+ *
+ * @author yuanbug
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class AstIndexChange {
+
+    /**
+     * 发生变更的Java文件
+     */
+    public final Set<File> files;
+
+    /**
+     * 受影响的类限定名，包含变更前后文件中声明的所有类型
+     */
+    public final Set<String> typeNames;
+
+}
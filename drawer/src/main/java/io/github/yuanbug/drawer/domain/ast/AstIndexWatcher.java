@@ -0,0 +1,173 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import io.github.yuanbug.drawer.domain.CodeModule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * 监听源码目录，文件变更后增量更新AST索引
+ *
+ * @author yuanbug
+ */
+@Slf4j
+public class AstIndexWatcher implements Closeable {
+
+    /**
+     * 编辑器保存文件时往往会连续产生多个事件，在这段时间内没有新事件才开始处理
+     */
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    private final AstIndex astIndex;
+
+    private final List<CodeModule> modules;
+
+    private final Map<WatchKey, WatchedDir> watchedDirs = new ConcurrentHashMap<>(64);
+
+    private WatchService watchService;
+
+    private Thread worker;
+
+    public AstIndexWatcher(AstIndex astIndex, List<CodeModule> modules) {
+        this.astIndex = astIndex;
+        this.modules = modules;
+    }
+
+    public synchronized void start() {
+        if (null != worker) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (CodeModule module : modules) {
+                registerAll(module.getSrcMainJavaPath(), module);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("监听源码目录出错", e);
+        }
+        worker = new Thread(this::watch, "ast-index-watcher");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("开始监听{}个模块的源码变更", modules.size());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (null == worker) {
+            return;
+        }
+        worker.interrupt();
+        watchService.close();
+        worker = null;
+    }
+
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Map<Path, CodeModule> changedFiles = new LinkedHashMap<>();
+                WatchKey key = watchService.take();
+                while (null != key) {
+                    collectChanges(key, changedFiles);
+                    key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                applyChanges(changedFiles);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (Exception e) {
+                log.error("处理源码变更出错", e);
+            }
+        }
+    }
+
+    private void collectChanges(WatchKey key, Map<Path, CodeModule> changedFiles) {
+        WatchedDir watchedDir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || null == watchedDir) {
+                log.warn("源码变更事件过多，部分变更可能没有同步到AST索引");
+                continue;
+            }
+            Path path = watchedDir.dir().resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                // 新建或移入的目录，其中的文件不会再产生事件
+                registerAllQuietly(path, watchedDir.module());
+                listJavaFiles(path).forEach(javaFile -> changedFiles.put(javaFile, watchedDir.module()));
+                continue;
+            }
+            if (isJavaFile(path)) {
+                changedFiles.put(path, watchedDir.module());
+                continue;
+            }
+            if (event.kind() == ENTRY_DELETE) {
+                // 删除或移出的目录，其中已索引的文件都要移除
+                File removedDir = path.toFile();
+                astIndex.getFileToFileInfo().keySet().stream()
+                        .filter(file -> file.toPath().startsWith(removedDir.toPath()))
+                        .forEach(file -> changedFiles.put(file.toPath(), watchedDir.module()));
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    private void applyChanges(Map<Path, CodeModule> changedFiles) {
+        changedFiles.forEach((path, module) -> {
+            File javaFile = path.toFile();
+            if (!javaFile.exists()) {
+                astIndex.removeFileFromIndex(javaFile);
+                log.info("已从AST索引中移除 {}", javaFile);
+                return;
+            }
+            try {
+                astIndex.reindexFile(javaFile, module);
+                log.info("已重新索引 {}", javaFile);
+            } catch (Exception e) {
+                // 编辑过程中的文件经常无法通过语法检查，保留原有索引即可
+                log.warn("重新索引文件出错，保留原有索引 {}", javaFile, e);
+            }
+        });
+    }
+
+    private void registerAll(Path root, CodeModule module) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path dir : paths.filter(Files::isDirectory).toList()) {
+                WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                watchedDirs.put(key, new WatchedDir(dir, module));
+            }
+        }
+    }
+
+    private void registerAllQuietly(Path root, CodeModule module) {
+        try {
+            registerAll(root, module);
+        } catch (IOException e) {
+            log.warn("监听源码目录出错 {}", root, e);
+        }
+    }
+
+    private static List<Path> listJavaFiles(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(AstIndexWatcher::isJavaFile).toList();
+        } catch (IOException e) {
+            log.warn("遍历源码目录出错 {}", dir, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static boolean isJavaFile(Path path) {
+        return path.getFileName().toString().endsWith(".java") && !Files.isDirectory(path);
+    }
+
+    private record WatchedDir(Path dir, CodeModule module) {}
+
+}
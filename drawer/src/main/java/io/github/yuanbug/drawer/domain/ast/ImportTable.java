@@ -0,0 +1,145 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.nodeTypes.NodeWithName;
+import io.github.yuanbug.drawer.utils.AstUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * 文件中简单类名到类限定名的对照表，按Java的规则依次查找单类型导入、同包类型、按需导入（包括java.lang）
+ * <p>
+ * 单类型导入在构建时展开成表；同包类型和按需导入先到AST索引中查找，找不到再用类加载器查找，类加载器的结果按简单类名缓存
+ *
+ * @author yuanbug
+ */
+public class ImportTable {
+
+    private static final DataKey<ImportTable> IMPORT_TABLE_KEY = new DataKey<>() {};
+
+    private static final String JAVA_LANG = "java.lang";
+
+    /**
+     * 简单类名 -> 单类型导入的类限定名，同名时以先出现的为准
+     */
+    private final Map<String, String> singleTypeImports;
+
+    /**
+     * 文件所在的包，默认包为空字符串
+     */
+    private final String packageName;
+
+    /**
+     * 按需导入的包或类型，按出现顺序排列，最后是java.lang
+     */
+    private final List<String> onDemandImports;
+
+    /**
+     * (包名, 简单类名) -> 索引中的类限定名，找不到时返回null
+     */
+    private final BiFunction<String, String, String> indexLookup;
+
+    /**
+     * 简单类名 -> 通过类加载器找到的类限定名，索引中的类型会变化所以不缓存
+     */
+    private final Map<String, Optional<String>> classLoaderResults = new ConcurrentHashMap<>(16);
+
+    private ImportTable(CompilationUnit ast, BiFunction<String, String, String> indexLookup) {
+        Map<String, String> singleTypes = new HashMap<>(ast.getImports().size() * 2);
+        List<String> onDemand = new ArrayList<>(4);
+        for (ImportDeclaration importation : ast.getImports()) {
+            String importName = importation.getNameAsString();
+            if (importation.isAsterisk()) {
+                onDemand.add(importName);
+            } else {
+                singleTypes.putIfAbsent(importName.substring(importName.lastIndexOf('.') + 1), importName);
+            }
+        }
+        onDemand.add(JAVA_LANG);
+        this.singleTypeImports = singleTypes;
+        this.packageName = ast.getPackageDeclaration().map(NodeWithName::getNameAsString).orElse("");
+        this.onDemandImports = onDemand;
+        this.indexLookup = indexLookup;
+    }
+
+    /**
+     * 构建对照表并记录在文件AST上
+     *
+     * @param indexLookup (包名, 简单类名) -> 索引中的类限定名，找不到时返回null
+     * @apiNote 节点的data不是线程安全的，只在构建索引、由当前线程独占AST时调用
+     */
+    public static ImportTable attachTo(CompilationUnit ast, BiFunction<String, String, String> indexLookup) {
+        ImportTable table = new ImportTable(ast, indexLookup);
+        ast.setData(IMPORT_TABLE_KEY, table);
+        return table;
+    }
+
+    /**
+     * 获取文件的对照表，不在索引中的文件每次都会重新构建，且只能通过类加载器查找
+     */
+    public static ImportTable of(CompilationUnit ast) {
+        if (ast.containsData(IMPORT_TABLE_KEY)) {
+            return ast.getData(IMPORT_TABLE_KEY);
+        }
+        return new ImportTable(ast, (packageName, simpleName) -> null);
+    }
+
+    /**
+     * @param name 简单类名，也可以是 Outer.Inner 形式
+     * @return 类限定名，找不到时返回null
+     */
+    public String resolve(String name) {
+        if (StringUtils.isBlank(name)) {
+            return null;
+        }
+        int dot = name.indexOf('.');
+        if (dot < 0) {
+            return resolveSimpleName(name);
+        }
+        // 已经是类限定名
+        if (singleTypeImports.containsValue(name)) {
+            return name;
+        }
+        String outer = resolveSimpleName(name.substring(0, dot));
+        return null == outer ? null : outer + name.substring(dot);
+    }
+
+    private String resolveSimpleName(String simpleName) {
+        String singleTypeImport = singleTypeImports.get(simpleName);
+        if (null != singleTypeImport) {
+            return singleTypeImport;
+        }
+        String samePackage = indexLookup.apply(packageName, simpleName);
+        if (null != samePackage) {
+            return samePackage;
+        }
+        for (String onDemandImport : onDemandImports) {
+            String byIndex = indexLookup.apply(onDemandImport, simpleName);
+            if (null != byIndex) {
+                return byIndex;
+            }
+        }
+        return classLoaderResults.computeIfAbsent(simpleName, this::findByClassLoader).orElse(null);
+    }
+
+    private Optional<String> findByClassLoader(String simpleName) {
+        String samePackage = qualify(packageName, simpleName);
+        if (null != AstUtils.forName(samePackage)) {
+            return Optional.of(samePackage);
+        }
+        return onDemandImports.stream()
+                .map(onDemandImport -> qualify(onDemandImport, simpleName))
+                .filter(qualifiedName -> null != AstUtils.forName(qualifiedName))
+                .findFirst();
+    }
+
+    private static String qualify(String packageName, String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+}
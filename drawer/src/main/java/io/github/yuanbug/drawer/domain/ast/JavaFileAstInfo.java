@@ -25,9 +25,19 @@ public class JavaFileAstInfo {
      */
     public final CompilationUnit ast;
 
+    /**
+     * 解析出ast时文件内容的SHA-256
+     */
+    public final String contentHash;
+
     /**
      * 所在模块
      */
     public final String moduleName;
 
+    /**
+     * 文件中简单类名到类限定名的对照表
+     */
+    public final ImportTable importTable;
+
 }
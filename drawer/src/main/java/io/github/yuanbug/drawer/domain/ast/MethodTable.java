@@ -0,0 +1,58 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.util.*;
+
+/**
+ * 类型中直接声明的方法，按方法名和参数个数分组，不包括内部类和匿名类中的方法
+ *
+ * @author yuanbug
+ */
+public class MethodTable {
+
+    private static final DataKey<MethodTable> METHOD_TABLE_KEY = new DataKey<>() {};
+
+    /**
+     * 方法名 -> 参数个数 -> 方法声明
+     */
+    private final Map<String, Map<Integer, List<MethodDeclaration>>> methods;
+
+    private MethodTable(TypeDeclaration<?> type) {
+        Map<String, Map<Integer, List<MethodDeclaration>>> table = new HashMap<>(16);
+        for (MethodDeclaration method : type.getMethods()) {
+            table.computeIfAbsent(method.getNameAsString(), key -> new HashMap<>(4))
+                    .computeIfAbsent(method.getParameters().size(), key -> new ArrayList<>(1))
+                    .add(method);
+        }
+        this.methods = table;
+    }
+
+    /**
+     * 构建方法表并记录在类型声明节点上
+     *
+     * @apiNote 节点的data不是线程安全的，只在构建索引、由当前线程独占AST时调用
+     */
+    public static MethodTable attachTo(TypeDeclaration<?> type) {
+        MethodTable table = new MethodTable(type);
+        type.setData(METHOD_TABLE_KEY, table);
+        return table;
+    }
+
+    /**
+     * 获取类型的方法表，不在索引中的类型每次都会重新构建
+     */
+    public static MethodTable of(TypeDeclaration<?> type) {
+        if (type.containsData(METHOD_TABLE_KEY)) {
+            return type.getData(METHOD_TABLE_KEY);
+        }
+        return new MethodTable(type);
+    }
+
+    public List<MethodDeclaration> getMethods(String methodName, int paramNum) {
+        return methods.getOrDefault(methodName, Collections.emptyMap()).getOrDefault(paramNum, Collections.emptyList());
+    }
+
+}
@@ -0,0 +1,233 @@
+package io.github.yuanbug.drawer.domain.info;
+
+import com.github.javaparser.ast.body.MethodDeclaration;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 紧凑存储的方法调用图，不引用AST
+ * <p>
+ * 方法按从入口开始广度优先遍历的顺序编号，入口方法的编号为0；
+ * 调用关系和覆写关系都以CSR形式存放在int数组中，第i个方法的边为 [offsets[i], offsets[i + 1]) 区间，
+ * 调用类型和是否递归压缩在一个byte中。需要方法声明时，按方法ID到AST索引中查找
+ *
+ * @author yuanbug
+ */
+public final class CompactMethodGraph {
+
+    public static final int ROOT = 0;
+
+    private static final byte EXPANDABLE = 1;
+    private static final byte HAS_DECLARATION = 1 << 1;
+
+    private static final byte CALLING_TYPE_MASK = 0x0F;
+    private static final byte RECURSIVE = 0x10;
+
+    private static final MethodCallingType[] CALLING_TYPES = MethodCallingType.values();
+
+    private final String[] methodIds;
+    private final byte[] methodFlags;
+
+    private final int[] callingOffsets;
+    private final int[] callingTargets;
+    private final byte[] callingFlags;
+
+    private final int[] overrideOffsets;
+    private final int[] overrideTargets;
+
+    private CompactMethodGraph(String[] methodIds, byte[] methodFlags,
+                               int[] callingOffsets, int[] callingTargets, byte[] callingFlags,
+                               int[] overrideOffsets, int[] overrideTargets) {
+        this.methodIds = methodIds;
+        this.methodFlags = methodFlags;
+        this.callingOffsets = callingOffsets;
+        this.callingTargets = callingTargets;
+        this.callingFlags = callingFlags;
+        this.overrideOffsets = overrideOffsets;
+        this.overrideTargets = overrideTargets;
+    }
+
+    /**
+     * 从入口方法构建，同一个方法ID只取最先遍历到的那个 {@link MethodInfo}
+     */
+    public static CompactMethodGraph of(MethodInfo root) {
+        Map<String, Integer> indexes = new HashMap<>(64);
+        List<String> ids = new ArrayList<>(64);
+        List<MethodInfo> methods = new ArrayList<>(64);
+        Queue<MethodInfo> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            MethodInfo current = queue.poll();
+            String id = current.getId().toString();
+            if (indexes.containsKey(id)) {
+                continue;
+            }
+            indexes.put(id, ids.size());
+            ids.add(id);
+            methods.add(current);
+            queue.addAll(current.getOverrides());
+            current.getDependencies().stream().map(MethodCalling::getCallee).filter(Objects::nonNull).forEach(queue::add);
+        }
+        // 递归的目标是调用链上的方法，正常情况下已经遍历到，这里兜底
+        for (int i = 0; i < methods.size(); i++) {
+            methods.get(i).getDependencies().stream()
+                    .map(MethodCalling::getRecursiveAt)
+                    .filter(recursiveAt -> StringUtils.isNotBlank(recursiveAt) && !indexes.containsKey(recursiveAt))
+                    .forEach(recursiveAt -> {
+                        indexes.put(recursiveAt, ids.size());
+                        ids.add(recursiveAt);
+                    });
+        }
+
+        int size = ids.size();
+        byte[] methodFlags = new byte[size];
+        int[] callingOffsets = new int[size + 1];
+        int[] overrideOffsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            MethodInfo method = i < methods.size() ? methods.get(i) : null;
+            if (null != method) {
+                methodFlags[i] = (byte) ((method.isExpandable() ? EXPANDABLE : 0) | (null != method.getDeclaration() ? HAS_DECLARATION : 0));
+            }
+            callingOffsets[i + 1] = callingOffsets[i] + (null == method ? 0 : (int) method.getDependencies().stream().filter(CompactMethodGraph::isEdge).count());
+            overrideOffsets[i + 1] = overrideOffsets[i] + (null == method ? 0 : method.getOverrides().size());
+        }
+
+        int[] callingTargets = new int[callingOffsets[size]];
+        byte[] callingFlags = new byte[callingOffsets[size]];
+        int[] overrideTargets = new int[overrideOffsets[size]];
+        for (int i = 0; i < methods.size(); i++) {
+            MethodInfo method = methods.get(i);
+            int edge = callingOffsets[i];
+            for (MethodCalling calling : method.getDependencies()) {
+                if (!isEdge(calling)) {
+                    continue;
+                }
+                boolean recursive = null == calling.getCallee();
+                callingTargets[edge] = indexes.get(recursive ? calling.getRecursiveAt() : calling.getCallee().getId().toString());
+                callingFlags[edge] = (byte) ((null == calling.getCallingType() ? CALLING_TYPE_MASK : calling.getCallingType().ordinal()) | (recursive ? RECURSIVE : 0));
+                edge++;
+            }
+            int overrideEdge = overrideOffsets[i];
+            for (MethodInfo override : method.getOverrides()) {
+                overrideTargets[overrideEdge++] = indexes.get(override.getId().toString());
+            }
+        }
+        return new CompactMethodGraph(ids.toArray(String[]::new), methodFlags, callingOffsets, callingTargets, callingFlags, overrideOffsets, overrideTargets);
+    }
+
+    /**
+     * 还原成 {@link MethodInfo}，同一个方法ID对应同一个实例
+     *
+     * @param declarationLoader 按方法ID查找方法声明，只对解析时找到了声明的方法调用
+     */
+    public MethodInfo toMethodInfo(Function<MethodId, MethodDeclaration> declarationLoader) {
+        MethodInfo[] methods = new MethodInfo[size()];
+        for (int i = 0; i < methods.length; i++) {
+            MethodId methodId = MethodId.parse(methodIds[i]);
+            methods[i] = MethodInfo.builder()
+                    .id(methodId)
+                    .declaration(hasDeclaration(i) ? declarationLoader.apply(methodId) : null)
+                    .expandable(isExpandable(i))
+                    .build();
+        }
+        for (int i = 0; i < methods.length; i++) {
+            List<MethodCalling> dependencies = new ArrayList<>(getCallingEnd(i) - getCallingStart(i));
+            for (int calling = getCallingStart(i); calling < getCallingEnd(i); calling++) {
+                MethodInfo target = methods[getCallingTarget(calling)];
+                dependencies.add(isRecursive(calling)
+                        ? MethodCalling.builder().callingType(getCallingType(calling)).recursiveAt(target.getId().toString()).build()
+                        : MethodCalling.builder().callee(target).callingType(getCallingType(calling)).build());
+            }
+            List<MethodInfo> overrides = new ArrayList<>(getOverrideEnd(i) - getOverrideStart(i));
+            for (int override = getOverrideStart(i); override < getOverrideEnd(i); override++) {
+                overrides.add(methods[getOverrideTarget(override)]);
+            }
+            methods[i].setDependencies(dependencies);
+            methods[i].setOverrides(overrides);
+        }
+        return methods[ROOT];
+    }
+
+    RawData toRawData() {
+        return new RawData(methodIds, methodFlags, callingOffsets, callingTargets, callingFlags, overrideOffsets, overrideTargets);
+    }
+
+    static CompactMethodGraph fromRawData(RawData data) {
+        int size = data.methodIds().length;
+        if (data.methodFlags().length != size || data.callingOffsets().length != size + 1 || data.overrideOffsets().length != size + 1
+                || data.callingTargets().length != data.callingOffsets()[size] || data.callingFlags().length != data.callingOffsets()[size]
+                || data.overrideTargets().length != data.overrideOffsets()[size]) {
+            throw new IllegalArgumentException("调用图数据不完整");
+        }
+        return new CompactMethodGraph(data.methodIds(), data.methodFlags(), data.callingOffsets(), data.callingTargets(), data.callingFlags(), data.overrideOffsets(), data.overrideTargets());
+    }
+
+    /**
+     * 用于持久化的原始数组
+     */
+    record RawData(String[] methodIds, byte[] methodFlags,
+                int[] callingOffsets, int[] callingTargets, byte[] callingFlags,
+                int[] overrideOffsets, int[] overrideTargets) {}
+
+    private static boolean isEdge(MethodCalling calling) {
+        return null != calling.getCallee() || StringUtils.isNotBlank(calling.getRecursiveAt());
+    }
+
+    public int size() {
+        return methodIds.length;
+    }
+
+    public String getMethodId(int method) {
+        return methodIds[method];
+    }
+
+    public boolean isExpandable(int method) {
+        return (methodFlags[method] & EXPANDABLE) != 0;
+    }
+
+    /**
+     * 解析时是否找到了方法声明，找到了才值得到AST索引中查找
+     */
+    public boolean hasDeclaration(int method) {
+        return (methodFlags[method] & HAS_DECLARATION) != 0;
+    }
+
+    public int getCallingStart(int method) {
+        return callingOffsets[method];
+    }
+
+    public int getCallingEnd(int method) {
+        return callingOffsets[method + 1];
+    }
+
+    public int getCallingTarget(int calling) {
+        return callingTargets[calling];
+    }
+
+    public MethodCallingType getCallingType(int calling) {
+        int ordinal = callingFlags[calling] & CALLING_TYPE_MASK;
+        return ordinal < CALLING_TYPES.length ? CALLING_TYPES[ordinal] : null;
+    }
+
+    /**
+     * 递归调用指向调用链上已有的方法，不是该方法的子节点
+     */
+    public boolean isRecursive(int calling) {
+        return (callingFlags[calling] & RECURSIVE) != 0;
+    }
+
+    public int getOverrideStart(int method) {
+        return overrideOffsets[method];
+    }
+
+    public int getOverrideEnd(int method) {
+        return overrideOffsets[method + 1];
+    }
+
+    public int getOverrideTarget(int override) {
+        return overrideTargets[override];
+    }
+
+}
@@ -0,0 +1,176 @@
+package io.github.yuanbug.drawer.domain.info;
+
+import io.github.yuanbug.drawer.utils.HashUtils;
+import io.github.yuanbug.drawer.utils.JacksonUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 方法调用图的磁盘缓存
+ * <p>
+ * 每个入口方法的调用图以 {@link CompactMethodGraph} 的形式单独存放，同时记录解析调用图时所用AST对应的源码文件内容哈希，
+ * 以及项目中所有类型名的哈希（新增、删除类型可能改变覆写关系）。读取时这些哈希都与当前的文件一致才使用缓存
+ *
+ * @author yuanbug
+ */
+@Slf4j
+public class MethodGraphCache {
+
+    /**
+     * 缓存格式版本，调用图的解析逻辑或存储结构变化后需要修改
+     */
+    private static final String FORMAT_VERSION = "method-graph#1";
+
+    private final Path graphDir;
+
+    /**
+     * 文件绝对路径 -> 内容哈希，大小和修改时间都没变时不重新计算
+     */
+    private final Map<String, FileHash> fileHashes = new ConcurrentHashMap<>(256);
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    public MethodGraphCache(Path cacheDir) {
+        this.graphDir = cacheDir;
+        try {
+            Files.createDirectories(graphDir);
+        } catch (IOException e) {
+            throw new IllegalStateException("创建调用图缓存目录出错 %s".formatted(graphDir), e);
+        }
+    }
+
+    /**
+     * 读取入口方法的调用图，相关源码文件或类型集合发生变化时返回empty
+     */
+    public Optional<CompactMethodGraph> load(String methodId, String typeNamesHash) {
+        Path graphFile = getGraphFile(methodId);
+        if (!Files.exists(graphFile)) {
+            missCount.increment();
+            return Optional.empty();
+        }
+        try {
+            CachedGraph cached = JacksonUtils.parse(Files.readString(graphFile), CachedGraph.class);
+            if (null == cached || !isValid(cached, methodId, typeNamesHash)) {
+                missCount.increment();
+                return Optional.empty();
+            }
+            CompactMethodGraph graph = CompactMethodGraph.fromRawData(new CompactMethodGraph.RawData(
+                    cached.getMethodIds(), cached.getMethodFlags(),
+                    cached.getCallingOffsets(), cached.getCallingTargets(), cached.getCallingFlags(),
+                    cached.getOverrideOffsets(), cached.getOverrideTargets()
+            ));
+            hitCount.increment();
+            return Optional.of(graph);
+        } catch (Exception e) {
+            log.warn("读取调用图缓存出错，将重新解析 {}", methodId, e);
+            missCount.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 写入入口方法的调用图
+     *
+     * @param sourceHashes 图中方法所在的源码文件 -> 解析出AST时的内容哈希；文件在解析之后可能又被修改，不能在这里重新计算
+     */
+    public void save(String methodId, CompactMethodGraph graph, Map<File, String> sourceHashes, String typeNamesHash) {
+        Map<String, String> hashes = new TreeMap<>();
+        CompactMethodGraph.RawData data = graph.toRawData();
+        try {
+            sourceHashes.forEach((sourceFile, hash) -> hashes.put(sourceFile.getAbsolutePath(), hash));
+            CachedGraph cached = new CachedGraph(
+                    FORMAT_VERSION, methodId, typeNamesHash, hashes,
+                    data.methodIds(), data.methodFlags(),
+                    data.callingOffsets(), data.callingTargets(), data.callingFlags(),
+                    data.overrideOffsets(), data.overrideTargets()
+            );
+            Files.writeString(getGraphFile(methodId), JacksonUtils.toJsonString(cached));
+        } catch (Exception e) {
+            log.warn("写入调用图缓存出错 {}", methodId, e);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private boolean isValid(CachedGraph cached, String methodId, String typeNamesHash) {
+        if (!FORMAT_VERSION.equals(cached.getVersion()) || !methodId.equals(cached.getMethodId()) || !typeNamesHash.equals(cached.getTypeNamesHash())) {
+            return false;
+        }
+        for (Map.Entry<String, String> entry : Optional.ofNullable(cached.getFiles()).orElse(Collections.emptyMap()).entrySet()) {
+            File sourceFile = new File(entry.getKey());
+            if (!sourceFile.exists() || !entry.getValue().equals(hash(sourceFile))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String hash(File sourceFile) {
+        long size = sourceFile.length();
+        long lastModified = sourceFile.lastModified();
+        FileHash fileHash = fileHashes.get(sourceFile.getAbsolutePath());
+        if (null != fileHash && fileHash.size() == size && fileHash.lastModified() == lastModified) {
+            return fileHash.hash();
+        }
+        String hash = HashUtils.sha256(sourceFile);
+        fileHashes.put(sourceFile.getAbsolutePath(), new FileHash(size, lastModified, hash));
+        return hash;
+    }
+
+    private Path getGraphFile(String methodId) {
+        return graphDir.resolve(HashUtils.sha256(methodId) + ".json");
+    }
+
+    private record FileHash(long size, long lastModified, String hash) {}
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class CachedGraph {
+
+        private String version;
+
+        private String methodId;
+
+        private String typeNamesHash;
+
+        /**
+         * 源码文件绝对路径 -> 内容哈希
+         */
+        private Map<String, String> files;
+
+        private String[] methodIds;
+
+        private byte[] methodFlags;
+
+        private int[] callingOffsets;
+
+        private int[] callingTargets;
+
+        private byte[] callingFlags;
+
+        private int[] overrideOffsets;
+
+        private int[] overrideTargets;
+
+    }
+
+}
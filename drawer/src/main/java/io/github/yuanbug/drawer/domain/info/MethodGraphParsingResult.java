@@ -0,0 +1,22 @@
+package io.github.yuanbug.drawer.domain.info;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 限时解析的结果，以紧凑调用图的形式返回
+ *
+ * @author yuanbug
+ */
+@Getter
+@AllArgsConstructor
+public class MethodGraphParsingResult {
+
+    private final CompactMethodGraph graph;
+
+    /**
+     * 是否因超时或线程中断提前结束，此时调用图不完整，未展开完的方法标记为可展开
+     */
+    private final boolean truncated;
+
+}
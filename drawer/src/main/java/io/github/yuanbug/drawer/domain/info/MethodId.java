@@ -1,60 +1,112 @@
 package io.github.yuanbug.drawer.domain.info;
 
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.Parameter;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.github.yuanbug.drawer.domain.convertor.MethodIdDeserializer;
 import io.github.yuanbug.drawer.utils.AstUtils;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
+ * 方法ID，同一个方法在仍被引用期间只会有一个实例
+ * <p>
+ * 所有实例都经过驻留，创建时计算好规范字符串；驻留表只弱引用实例，不再使用的ID（例如来自请求参数或已被修改的方法）会被回收
+ *
  * @author yuanbug
  */
-@Getter
-@AllArgsConstructor
 @JsonDeserialize(using = MethodIdDeserializer.class)
-public class MethodId {
+public final class MethodId {
 
-    private String className;
+    /**
+     * 构造方法的方法名，实例初始化块和实例字段的初始化表达式也归入构造方法
+     */
+    public static final String CONSTRUCTOR_NAME = "<init>";
 
-    private String methodName;
+    /**
+     * 静态初始化块和静态字段的初始化表达式归入的方法名
+     */
+    public static final String STATIC_INITIALIZER_NAME = "<clinit>";
 
-    private List<String> paramTypes;
+    /**
+     * 规范字符串 -> 方法ID，值为弱引用
+     */
+    private static final Cache<String, MethodId> INTERNED = CacheBuilder.newBuilder()
+            .weakValues()
+            .build();
+
+    @Getter
+    private final String className;
+
+    @Getter
+    private final String methodName;
+
+    @Getter
+    private final List<String> paramTypes;
+
+    private final String canonical;
+
+    private MethodId(String className, String methodName, List<String> paramTypes, String canonical) {
+        this.className = className;
+        this.methodName = methodName;
+        this.paramTypes = paramTypes;
+        this.canonical = canonical;
+    }
+
+    public static MethodId of(String className, String methodName, List<String> paramTypes) {
+        String canonical = className + '#' + methodName + '(' + String.join(",", paramTypes) + ')';
+        MethodId interned = INTERNED.getIfPresent(canonical);
+        if (null != interned) {
+            return interned;
+        }
+        return INTERNED.asMap().computeIfAbsent(canonical, key -> new MethodId(className, methodName, Collections.unmodifiableList(new ArrayList<>(paramTypes)), key));
+    }
+
+    /**
+     * @return 已驻留且尚未回收的方法ID个数，可能包含等待清理的条目
+     */
+    public static long getInternedCount() {
+        return INTERNED.size();
+    }
 
     @Override
     public String toString() {
-        return String.format(
-                "%s#%s(%s)",
-                className,
-                methodName,
-                String.join(",", paramTypes)
-        );
+        return canonical;
     }
 
+    /**
+     * 解析方法ID字符串，已驻留时直接返回；字符串可以来自请求参数，驻留表不会因此无限增长
+     */
     public static MethodId parse(String methodId) {
+        MethodId interned = INTERNED.getIfPresent(methodId);
+        if (null != interned) {
+            return interned;
+        }
         String className = methodId.substring(0, methodId.indexOf("#"));
         String methodName = methodId.substring(className.length() + 1, methodId.indexOf("("));
         List<String> paramTypes = Stream.of(methodId.substring(className.length() + 1 + methodName.length() + 1, methodId.length() - 1).split(","))
                 .filter(StringUtils::isNotBlank)
                 .toList();
-        return new MethodId(className, methodName, paramTypes);
+        return of(className, methodName, paramTypes);
     }
 
     public static MethodId from(MethodDeclaration method) {
-        return new MethodId(
+        return of(
                 AstUtils.getName(AstUtils.findDeclaringType(method)),
                 method.getNameAsString(),
                 method.getParameters().stream()
@@ -64,8 +116,19 @@ public class MethodId {
         );
     }
 
+    public static MethodId from(ConstructorDeclaration constructor) {
+        return of(
+                AstUtils.getName(AstUtils.findDeclaringType(constructor)),
+                CONSTRUCTOR_NAME,
+                constructor.getParameters().stream()
+                        .map(Parameter::getType)
+                        .map(AstUtils::getName)
+                        .toList()
+        );
+    }
+
     public static MethodId from(ResolvedMethodDeclaration method) {
-        return new MethodId(
+        return of(
                 AstUtils.getName(method.declaringType()),
                 method.getName(),
                 IntStream.range(0, method.getNumberOfParams())
@@ -77,7 +140,7 @@ public class MethodId {
     }
 
     public static MethodId from(Method method) {
-        return new MethodId(
+        return of(
                 method.getDeclaringClass().getName(),
                 method.getName(),
                 Stream.of(method.getParameterTypes()).map(Class::getName).toList()
@@ -92,7 +155,12 @@ public class MethodId {
     public boolean equals(Object object) {
         if (this == object) return true;
         if (object == null || getClass() != object.getClass()) return false;
-        return Objects.equals(toString(), object.toString());
+        return canonical.equals(((MethodId) object).canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return canonical.hashCode();
     }
 
     public static Map<String, MethodDeclaration> group(List<MethodDeclaration> methods) {
@@ -32,4 +32,9 @@ public class MethodInfo {
 
     private List<MethodInfo> overrides;
 
+    /**
+     * 按深度或节点数限制解析时，处于边界、依赖尚未解析的方法为true
+     */
+    private boolean expandable;
+
 }
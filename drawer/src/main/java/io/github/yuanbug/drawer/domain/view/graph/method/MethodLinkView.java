@@ -27,4 +27,9 @@ public class MethodLinkView {
 
     private Map<String, List<String>> overrides;
 
+    /**
+     * 解析是否超时，超时时调用图不完整，未展开完的方法标记为可展开
+     */
+    private boolean truncated;
+
 }
@@ -24,4 +24,9 @@ public class MethodView {
 
     private List<ArgumentView> arguments;
 
+    /**
+     * 该方法的调用关系还没有展示，可以继续展开
+     */
+    private boolean expandable;
+
 }
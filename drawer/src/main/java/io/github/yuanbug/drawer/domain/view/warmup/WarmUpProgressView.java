@@ -0,0 +1,37 @@
+package io.github.yuanbug.drawer.domain.view.warmup;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 方法预热进度
+ *
+ * @author yuanbug
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmUpProgressView {
+
+    private boolean enabled;
+
+    /**
+     * 方法列表中的方法总数
+     */
+    private int total;
+
+    private int finished;
+
+    private int failed;
+
+    private int running;
+
+    /**
+     * 预热已进行的时间，全部完成后不再增长
+     */
+    private long elapsedMillis;
+
+}
@@ -0,0 +1,101 @@
+package io.github.yuanbug.drawer.parser;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.github.yuanbug.drawer.utils.AstUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按文件批量解析方法调用
+ * <p>
+ * 第一次用到某个文件中的调用时，一次性解析该文件中的所有调用，结果按节点引用存放在旁表中，之后直接查表。
+ * 同一个文件的调用集中解析，符号解析器的上下文和缓存能被连续复用
+ * <p>
+ * 节点的data不是线程安全的，所以结果不记录在节点上；源码变更后其它文件中调用的解析结果也可能变化，按代数整体失效并清空
+ *
+ * @author yuanbug
+ */
+@Slf4j
+class BatchCallResolver {
+
+    private static final long MAX_CACHED_FILES = 4096;
+
+    /**
+     * 文件的AST -> 其中所有调用的解析结果
+     * <p>
+     * 节点的equals和hashCode按内容计算，weakKeys使AST按引用比较。结果中的调用节点通过父节点引用着作为键的AST，
+     * 所以弱引用不会让条目被回收，内存只靠容量上限和 {@link #invalidateAll()} 释放
+     */
+    private final Cache<CompilationUnit, FileResolutions> resolutions = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(MAX_CACHED_FILES)
+            .build();
+
+    /**
+     * 每次源码变更加一，旧代数的结果不再使用，避免变更前开始的批量解析在变更后才写入
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param resolved 调用 -> 解析出的方法，无法解析的调用对应null
+     */
+    private record FileResolutions(long generation, Map<MethodCallExpr, ResolvedMethodDeclaration> resolved) {}
+
+    /**
+     * @return 无法解析时返回null
+     */
+    ResolvedMethodDeclaration resolve(MethodCallExpr expr) {
+        CompilationUnit ast = expr.findCompilationUnit().orElse(null);
+        if (null == ast) {
+            return AstUtils.tryResolve(expr);
+        }
+        FileResolutions fileResolutions = getFileResolutions(ast);
+        if (!fileResolutions.resolved().containsKey(expr)) {
+            // 批量解析之后才加入AST的节点
+            return AstUtils.tryResolve(expr);
+        }
+        return fileResolutions.resolved().get(expr);
+    }
+
+    /**
+     * 源码变更后调用
+     */
+    void invalidateAll() {
+        generation.incrementAndGet();
+        resolutions.invalidateAll();
+    }
+
+    private FileResolutions getFileResolutions(CompilationUnit ast) {
+        try {
+            FileResolutions fileResolutions = resolutions.get(ast, () -> resolveAll(ast));
+            if (fileResolutions.generation() == generation.get()) {
+                return fileResolutions;
+            }
+            resolutions.asMap().remove(ast, fileResolutions);
+            return resolutions.get(ast, () -> resolveAll(ast));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("批量解析方法调用出错", e.getCause());
+        }
+    }
+
+    private FileResolutions resolveAll(CompilationUnit ast) {
+        long currentGeneration = generation.get();
+        List<MethodCallExpr> callExpressions = ast.findAll(MethodCallExpr.class);
+        Map<MethodCallExpr, ResolvedMethodDeclaration> resolved = new IdentityHashMap<>(callExpressions.size());
+        for (MethodCallExpr callExpr : callExpressions) {
+            resolved.put(callExpr, AstUtils.tryResolve(callExpr));
+        }
+        log.debug("已批量解析{}个方法调用 {}", callExpressions.size(), ast.getStorage().map(storage -> storage.getPath().toString()).orElse(""));
+        return new FileResolutions(currentGeneration, resolved);
+    }
+
+}
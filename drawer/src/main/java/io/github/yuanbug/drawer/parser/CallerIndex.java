@@ -0,0 +1,313 @@
+package io.github.yuanbug.drawer.parser;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.stmt.ExplicitConstructorInvocationStmt;
+import io.github.yuanbug.drawer.config.AstParsingConfig;
+import io.github.yuanbug.drawer.domain.ast.AstIndex;
+import io.github.yuanbug.drawer.domain.ast.AstIndexChange;
+import io.github.yuanbug.drawer.domain.ast.JavaFileAstInfo;
+import io.github.yuanbug.drawer.domain.info.MethodCalling;
+import io.github.yuanbug.drawer.domain.info.MethodCallingType;
+import io.github.yuanbug.drawer.domain.info.MethodId;
+import io.github.yuanbug.drawer.utils.AstUtils;
+import io.github.yuanbug.drawer.utils.StopwatchTimer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * 反向调用索引：被调用方法 -> 调用它的方法
+ * <p>
+ * 启动后在后台并行扫描索引中所有方法、构造方法、初始化块和字段初始化表达式构建，之后随AST索引的变更增量更新。
+ * 调用关系按文件登记，文件变更时只需重新扫描该文件，以及调用了变更类型中方法的文件
+ * <p>
+ * 构造方法的ID形如 {@code Foo#<init>(int)}，实例初始化块和实例字段的初始化表达式中的调用归入每个不委托给this(...)的构造方法，
+ * 没有声明构造方法时归入默认构造方法；静态初始化块和静态字段中的调用归入 {@code Foo#<clinit>()}
+ *
+ * @author yuanbug
+ */
+@Slf4j
+@Component
+public class CallerIndex {
+
+    private final AstIndex astIndex;
+    private final AstParsingConfig config;
+    private final MethodParser methodParser;
+
+    /**
+     * 被调用方法ID -> 调用方法ID -> 调用类型
+     */
+    private final Map<String, Map<String, MethodCallingType>> calleeToCallers = new ConcurrentHashMap<>(1024);
+
+    /**
+     * 文件 -> 文件中的方法发起的调用，用于增量更新
+     */
+    private final Map<File, List<CallEdge>> fileToEdges = new ConcurrentHashMap<>(256);
+
+    private volatile boolean built = false;
+
+    /**
+     * 构建过程持有this的锁，后台构建任务另用一把锁，等待构建的查询才能按时限返回
+     */
+    private final Object buildingLock = new Object();
+
+    /**
+     * 后台构建任务，构建失败后置空，下次查询时重新构建
+     */
+    private CompletableFuture<Void> building;
+
+    /**
+     * @param caller 调用方法ID
+     * @param callee 被调用方法ID
+     */
+    public record CallEdge(String caller, MethodId callee, MethodCallingType callingType) {}
+
+    public CallerIndex(AstIndex astIndex, AstParsingConfig config, MethodParser methodParser) {
+        this.astIndex = astIndex;
+        this.config = config;
+        this.methodParser = methodParser;
+        astIndex.addChangeListener(this::onAstIndexChange);
+    }
+
+    /**
+     * 直接调用该方法的方法，包括通过其覆写或实现的父类型方法发起的调用，索引尚未构建完成时等待构建完成
+     *
+     * @return 调用方法ID -> 调用类型
+     */
+    public Map<String, MethodCallingType> getCallers(String methodId) {
+        awaitBuilt(0);
+        Map<String, MethodCallingType> result = new LinkedHashMap<>(calleeToCallers.getOrDefault(methodId, Collections.emptyMap()));
+        for (MethodId parent : methodParser.findParentMethods(MethodId.parse(methodId))) {
+            calleeToCallers.getOrDefault(parent.toString(), Collections.emptyMap()).forEach(result::putIfAbsent);
+        }
+        return result;
+    }
+
+    public int getCalleeCount() {
+        return calleeToCallers.size();
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * 启动后在后台构建索引，不占用第一次查询的请求线程
+     */
+    @PostConstruct
+    public CompletableFuture<Void> buildInBackground() {
+        synchronized (buildingLock) {
+            if (null != building) {
+                return building;
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            building = future;
+            Thread thread = new Thread(() -> {
+                try {
+                    build();
+                    future.complete(null);
+                } catch (Throwable e) {
+                    log.error("构建反向调用索引出错", e);
+                    resetBuilding(future);
+                    future.completeExceptionally(e);
+                }
+            }, "caller-index-builder");
+            thread.setDaemon(true);
+            thread.start();
+            return future;
+        }
+    }
+
+    /**
+     * 等待索引构建完成，尚未开始构建时在后台开始构建
+     *
+     * @param timeoutMillis 不大于0时不限时
+     * @return 是否已构建完成，超时返回false
+     */
+    public boolean awaitBuilt(long timeoutMillis) {
+        if (built) {
+            return true;
+        }
+        CompletableFuture<Void> future = buildInBackground();
+        try {
+            if (timeoutMillis > 0) {
+                future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } else {
+                future.get();
+            }
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待反向调用索引构建被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("构建反向调用索引出错", e.getCause());
+        }
+    }
+
+    private void resetBuilding(CompletableFuture<Void> failed) {
+        synchronized (buildingLock) {
+            if (building == failed) {
+                building = null;
+            }
+        }
+    }
+
+    /**
+     * 持有锁直到构建完成，期间到达的源码变更等构建完成后再处理
+     */
+    private synchronized void build() {
+        if (built) {
+            return;
+        }
+        log.info("开始构建反向调用索引");
+        StopwatchTimer timer = StopwatchTimer.start();
+        Map<File, List<CallEdge>> scanned = scanFiles(astIndex.getFileToFileInfo().values(), config.getIndexingParallelism());
+        scanned.forEach(this::putEdges);
+        built = true;
+        log.info("反向调用索引构建完成，共扫描{}个文件，登记{}个被调用方法，耗时{}ms", scanned.size(), calleeToCallers.size(), timer.next());
+    }
+
+    /**
+     * 解析过程并行执行，结果由调用方在当前线程写入索引
+     */
+    private Map<File, List<CallEdge>> scanFiles(Collection<JavaFileAstInfo> fileInfos, int parallelism) {
+        if (parallelism <= 1) {
+            Map<File, List<CallEdge>> result = new HashMap<>(fileInfos.size());
+            fileInfos.forEach(info -> result.put(info.getFile(), scanFile(info)));
+            return result;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> fileInfos.parallelStream()
+                            .collect(HashMap<File, List<CallEdge>>::new, (map, info) -> map.put(info.getFile(), scanFile(info)), Map::putAll))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("构建反向调用索引被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("构建反向调用索引出错", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<CallEdge> scanFile(JavaFileAstInfo fileInfo) {
+        List<CallEdge> edges = new ArrayList<>();
+        for (MethodDeclaration method : fileInfo.getAst().findAll(MethodDeclaration.class)) {
+            method.getBody().ifPresent(body -> scanCalls(body, AstUtils.findDeclaringType(method), () -> List.of(MethodId.from(method).toString()), edges));
+        }
+        for (TypeDeclaration<?> type : fileInfo.getAst().findAll(TypeDeclaration.class)) {
+            scanInitialization(type, edges);
+        }
+        return edges;
+    }
+
+    private void scanInitialization(TypeDeclaration<?> type, List<CallEdge> edges) {
+        for (ConstructorDeclaration constructor : type.getConstructors()) {
+            scanCalls(constructor.getBody(), type, () -> List.of(MethodId.from(constructor).toString()), edges);
+        }
+        Supplier<List<String>> instanceInitializers = () -> findInstanceInitializers(type);
+        Supplier<List<String>> staticInitializers = () -> List.of(MethodId.of(AstUtils.getName(type), MethodId.STATIC_INITIALIZER_NAME, Collections.emptyList()).toString());
+        // 接口中的字段都是静态的
+        boolean staticFields = type instanceof ClassOrInterfaceDeclaration declaration && declaration.isInterface();
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof InitializerDeclaration initializer) {
+                scanCalls(initializer.getBody(), type, initializer.isStatic() ? staticInitializers : instanceInitializers, edges);
+            } else if (member instanceof FieldDeclaration field) {
+                Supplier<List<String>> callers = staticFields || field.isStatic() ? staticInitializers : instanceInitializers;
+                field.getVariables().forEach(variable -> variable.getInitializer().ifPresent(initializer -> scanCalls(initializer, type, callers, edges)));
+            }
+        }
+    }
+
+    /**
+     * @return 会执行实例初始化的构造方法，即不委托给this(...)的构造方法，没有声明构造方法时为默认构造方法
+     */
+    private static List<String> findInstanceInitializers(TypeDeclaration<?> type) {
+        List<ConstructorDeclaration> constructors = type.getConstructors();
+        if (constructors.isEmpty()) {
+            return List.of(MethodId.of(AstUtils.getName(type), MethodId.CONSTRUCTOR_NAME, Collections.emptyList()).toString());
+        }
+        return constructors.stream()
+                .filter(constructor -> !isDelegatingToThis(constructor))
+                .map(constructor -> MethodId.from(constructor).toString())
+                .toList();
+    }
+
+    private static boolean isDelegatingToThis(ConstructorDeclaration constructor) {
+        return constructor.getBody().getStatements().getFirst()
+                .filter(ExplicitConstructorInvocationStmt.class::isInstance)
+                .map(statement -> ((ExplicitConstructorInvocationStmt) statement).isThis())
+                .orElse(false);
+    }
+
+    /**
+     * @param callers 调用方法ID，只在确实有调用时才计算
+     */
+    private void scanCalls(Node body, TypeDeclaration<?> callerType, Supplier<List<String>> callers, List<CallEdge> edges) {
+        List<MethodCallExpr> callExpressions = body.findAll(MethodCallExpr.class);
+        if (callExpressions.isEmpty()) {
+            return;
+        }
+        List<String> callerIds = callers.get();
+        for (MethodCallExpr callExpr : callExpressions) {
+            try {
+                MethodCalling calling = methodParser.resolveCalling(callExpr, callerType);
+                if (null != calling && null != calling.getCallee()) {
+                    callerIds.forEach(caller -> edges.add(new CallEdge(caller, calling.getCallee().getId(), calling.getCallingType())));
+                }
+            } catch (Exception e) {
+                log.debug("解析方法调用出错 {} {}", callerIds, callExpr, e);
+            }
+        }
+    }
+
+    private void putEdges(File file, List<CallEdge> edges) {
+        fileToEdges.put(file, edges);
+        edges.forEach(edge -> calleeToCallers.computeIfAbsent(edge.callee().toString(), key -> new ConcurrentHashMap<>(4)).put(edge.caller(), edge.callingType()));
+    }
+
+    private void removeEdges(File file) {
+        List<CallEdge> edges = fileToEdges.remove(file);
+        if (null == edges) {
+            return;
+        }
+        // 同一个方法只声明在一个文件中，所以一条调用关系只属于一个文件，可以直接删除
+        edges.forEach(edge -> calleeToCallers.computeIfPresent(edge.callee().toString(), (callee, callers) -> {
+            callers.remove(edge.caller());
+            return callers.isEmpty() ? null : callers;
+        }));
+    }
+
+    /**
+     * 重新扫描变更的文件，以及调用了变更类型中方法的文件（被调用方法的ID可能已变化）
+     */
+    protected synchronized void onAstIndexChange(AstIndexChange change) {
+        if (!built) {
+            return;
+        }
+        Set<File> toRescan = new HashSet<>(change.getFiles());
+        fileToEdges.forEach((file, edges) -> {
+            if (edges.stream().anyMatch(edge -> change.getTypeNames().contains(edge.callee().getClassName()))) {
+                toRescan.add(file);
+            }
+        });
+        toRescan.forEach(this::removeEdges);
+        List<JavaFileAstInfo> fileInfos = toRescan.stream()
+                .map(astIndex::getInfoByFile)
+                .filter(Objects::nonNull)
+                .toList();
+        scanFiles(fileInfos, 1).forEach(this::putEdges);
+        log.info("源码变更，已重新扫描{}个文件的方法调用", fileInfos.size());
+    }
+
+}
@@ -5,13 +5,19 @@ import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.type.Type;
 import com.github.javaparser.resolution.types.ResolvedType;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.github.yuanbug.drawer.domain.ast.AstIndex;
 import io.github.yuanbug.drawer.domain.ast.JavaTypeInfo;
+import io.github.yuanbug.drawer.domain.ast.MethodTable;
 import io.github.yuanbug.drawer.domain.info.MethodInheritLinkInfo;
 import io.github.yuanbug.drawer.utils.AstUtils;
 import lombok.AllArgsConstructor;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -20,13 +26,45 @@ import java.util.Objects;
 @AllArgsConstructor
 public class InheritMethodParser {
 
+    private static final long MAX_CACHED_TYPES = 4096;
+
     private final AstIndex astIndex;
 
+    /**
+     * 类型 -> 方法 -> 方法的继承链信息，按需填充
+     * <p>
+     * 节点的equals是按内容比较的，这里的键都按引用比较（weakKeys）。
+     * 值中的方法节点通过父节点引用着作为键的类型，所以弱引用不会让条目被回收，内存只靠 {@link #clearCache()} 和容量上限释放
+     */
+    private final Cache<TypeDeclaration<?>, Map<MethodDeclaration, MethodInheritLinkInfo>> overrideTables = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(MAX_CACHED_TYPES)
+            .build();
+
     public MethodInheritLinkInfo parseParentMethods(MethodDeclaration toParse) {
         TypeDeclaration<?> declaringType = AstUtils.findDeclaringType(toParse);
+        Map<MethodDeclaration, MethodInheritLinkInfo> overrideTable = overrideTables.asMap()
+                .computeIfAbsent(declaringType, key -> Collections.synchronizedMap(new IdentityHashMap<>()));
+        MethodInheritLinkInfo cached = overrideTable.get(toParse);
+        if (null != cached) {
+            return cached;
+        }
+        MethodInheritLinkInfo result = parseParentMethods(toParse, declaringType);
+        overrideTable.put(toParse, result);
+        return result;
+    }
+
+    /**
+     * 源码变更后父类型中的方法可能已被替换，清空全部缓存
+     */
+    public void clearCache() {
+        overrideTables.invalidateAll();
+    }
+
+    private MethodInheritLinkInfo parseParentMethods(MethodDeclaration toParse, TypeDeclaration<?> declaringType) {
 
         List<MethodDeclaration> fromExtend = new SuperClassIterator(declaringType, astIndex).stream()
-                .flatMap(type -> type.findAll(MethodDeclaration.class).stream())
+                .flatMap(type -> MethodTable.of(type).getMethods(toParse.getNameAsString(), toParse.getParameters().size()).stream())
                 .filter(method -> isAssignable(method, toParse))
                 .toList();
 
@@ -35,7 +73,7 @@ public class InheritMethodParser {
                 .filter(ClassOrInterfaceDeclaration.class::isInstance)
                 .map(ClassOrInterfaceDeclaration.class::cast)
                 .filter(ClassOrInterfaceDeclaration::isInterface)
-                .flatMap(type -> type.findAll(MethodDeclaration.class).stream())
+                .flatMap(type -> MethodTable.of(type).getMethods(toParse.getNameAsString(), toParse.getParameters().size()).stream())
                 .filter(method -> isAssignable(method, toParse))
                 .toList();
 
@@ -0,0 +1,65 @@
+package io.github.yuanbug.drawer.parser;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 记录缓存中每个入口方法的调用图涉及哪些源码文件和类型，源码变更时据此找出需要清除的调用图，不必遍历调用图
+ * <p>
+ * 被清除或被淘汰的调用图留下的记录只会让之后多清除一些调用图，记录的总量不超过入口方法数乘以项目中的类型数
+ *
+ * @author yuanbug
+ */
+class MethodCacheTracker {
+
+    /**
+     * 文件 -> 调用图中有方法声明在该文件中的入口方法
+     */
+    private final Map<File, Set<String>> fileToRoots = new ConcurrentHashMap<>(256);
+
+    /**
+     * 类型 -> 调用图中有方法声明在该类型中的入口方法，用于覆盖变更前找不到所在文件的类型
+     */
+    private final Map<String, Set<String>> typeToRoots = new ConcurrentHashMap<>(256);
+
+    /**
+     * @param typeNames  调用图中的方法所在的类型
+     * @param fileOfType 类型所在的源码文件，不在AST索引中时返回null
+     */
+    void track(String rootId, Collection<String> typeNames, Function<String, File> fileOfType) {
+        for (String type : typeNames) {
+            add(typeToRoots, type, rootId);
+            File file = fileOfType.apply(type);
+            if (null != file) {
+                add(fileToRoots, file, rootId);
+            }
+        }
+    }
+
+    /**
+     * 找出受变更影响的调用图
+     *
+     * @param changedFiles 发生变更的文件
+     * @param changedTypes 变更前后文件中声明的类型
+     * @param parentTypes  变更类型的父类型，其中方法的覆写关系可能变化
+     * @return 入口方法
+     */
+    Set<String> collectAffected(Set<File> changedFiles, Set<String> changedTypes, Set<String> parentTypes) {
+        Set<String> affected = new HashSet<>();
+        changedFiles.forEach(file -> affected.addAll(removeOrEmpty(fileToRoots, file)));
+        changedTypes.forEach(type -> affected.addAll(removeOrEmpty(typeToRoots, type)));
+        parentTypes.forEach(type -> affected.addAll(removeOrEmpty(typeToRoots, type)));
+        return affected;
+    }
+
+    private static <K> void add(Map<K, Set<String>> map, K key, String rootId) {
+        map.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(rootId);
+    }
+
+    private static <K> Set<String> removeOrEmpty(Map<K, Set<String>> map, K key) {
+        return Optional.ofNullable(map.remove(key)).orElse(Collections.emptySet());
+    }
+
+}
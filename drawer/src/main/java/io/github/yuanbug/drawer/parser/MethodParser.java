@@ -7,22 +7,44 @@ import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedTypeDeclaration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import io.github.yuanbug.drawer.config.AstParsingConfig;
 import io.github.yuanbug.drawer.domain.ast.AstIndex;
+import io.github.yuanbug.drawer.domain.ast.AstIndexChange;
+import io.github.yuanbug.drawer.domain.ast.JavaTypeInfo;
+import io.github.yuanbug.drawer.domain.ast.MethodTable;
+import io.github.yuanbug.drawer.domain.info.CompactMethodGraph;
 import io.github.yuanbug.drawer.domain.info.MethodCalling;
 import io.github.yuanbug.drawer.domain.info.MethodCallingType;
+import io.github.yuanbug.drawer.domain.info.MethodGraphCache;
+import io.github.yuanbug.drawer.domain.info.MethodGraphParsingResult;
 import io.github.yuanbug.drawer.domain.info.MethodId;
 import io.github.yuanbug.drawer.domain.info.MethodInfo;
+import io.github.yuanbug.drawer.domain.info.MethodParsingResult;
 import io.github.yuanbug.drawer.parser.lombok.LombokParser;
 import io.github.yuanbug.drawer.utils.AstUtils;
+import io.github.yuanbug.drawer.utils.HashUtils;
 import io.github.yuanbug.drawer.utils.MiscUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author yuanbug
@@ -31,6 +53,8 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class MethodParser {
 
+    private static final String GRAPH_CACHE_DIR_NAME = "method-graph";
+
     private final AstIndex astIndex;
     private final AstParsingConfig config;
     private final UnsolvedParser unsolvedMethodParser;
@@ -43,9 +67,64 @@ public class MethodParser {
         this.lombokParser = new LombokParser(config);
         this.unsolvedMethodParser = new UnsolvedParser(astIndex, config, lombokParser);
         this.inheritMethodParser = new InheritMethodParser(astIndex);
+        this.methodCache = CacheBuilder.newBuilder()
+                .maximumWeight(config.getMethodCacheMaximumWeight())
+                .weigher((String methodId, CompactMethodGraph graph) -> graph.size())
+                .recordStats()
+                .build();
+        this.methods = methodCache.asMap();
+        this.graphCache = Optional.ofNullable(config.getAstCachePath())
+                .map(cachePath -> new MethodGraphCache(cachePath.resolve(GRAPH_CACHE_DIR_NAME)))
+                .orElse(null);
+        astIndex.addChangeListener(this::onAstIndexChange);
     }
 
-    private final Map<String, MethodInfo> methods = new ConcurrentHashMap<>(64);
+    /**
+     * 入口方法 -> 完整解析的调用图，权重为图中的方法数
+     * <p>
+     * 只缓存作为入口解析的方法，图中的其它方法不单独缓存。调用图以 {@link CompactMethodGraph} 的形式存放，不引用AST，
+     * 淘汰后整张图都能释放；需要方法声明时再按方法ID到AST索引中查找
+     */
+    private final Cache<String, CompactMethodGraph> methodCache;
+
+    /**
+     * {@link #methodCache} 的Map视图，通过它读取不计入命中统计
+     */
+    private final Map<String, CompactMethodGraph> methods;
+
+    /**
+     * 缓存中的调用图涉及的源码文件和类型，源码变更时只清除受影响的调用图
+     */
+    private final MethodCacheTracker cacheTracker = new MethodCacheTracker();
+
+    /**
+     * (被调用方法所在类型, 调用方所在类型) -> 调用类型，分类只取决于这两个类型，同一个类中的调用会大量重复
+     */
+    private final Map<CallingTypePair, MethodCallingType> callingTypes = new ConcurrentHashMap<>(1024);
+
+    private final BatchCallResolver callResolver = new BatchCallResolver();
+
+    /**
+     * 调用图的磁盘缓存，未配置缓存目录时为null
+     */
+    private final MethodGraphCache graphCache;
+
+    private volatile String typeNamesHash;
+
+    /**
+     * 正在解析的方法，同一个方法只由一个线程解析，其它线程等待其结果
+     */
+    private final Map<String, ParsingTask> parsingTasks = new ConcurrentHashMap<>(64);
+
+    /**
+     * 线程 -> 其正在等待的解析任务，用于发现线程之间的循环等待
+     */
+    private final Map<Thread, ParsingTask> waitingTasks = new HashMap<>();
+
+    /**
+     * 当前线程本次解析中创建的任务，最外层的解析结束后才一起发布，避免其它线程读到不完整的调用图
+     */
+    private final ThreadLocal<List<ParsingTask>> ownedTasks = new ThreadLocal<>();
 
     protected static class MethodParsingContext {
 
@@ -53,41 +132,666 @@ public class MethodParser {
 
         private final Set<String> parsedCalling = new HashSet<>();
 
+        /**
+         * 最多展开的调用层数，入口方法为第0层
+         */
+        private final int maxDepth;
+
+        /**
+         * 最多解析的方法数
+         */
+        private final int maxNodes;
+
+        /**
+         * 限制深度或方法数时本次解析出的方法，不完整，不会进入缓存
+         */
+        private final Map<String, MethodInfo> limitedMethods = new HashMap<>();
+
+        /**
+         * 截止时间，取自 {@link System#nanoTime()}，为null时不限时
+         */
+        private final Long deadlineNanos;
+
+        /**
+         * 是否因超时或线程中断提前结束，派生的上下文共用同一个标记
+         */
+        private final AtomicBoolean truncated;
+
+        /**
+         * 本次解析中用到的已缓存调用图还原出的方法，同一张图只还原一次，派生的上下文共用
+         */
+        private final Map<String, MethodInfo> reusedMethods;
+
+        protected MethodParsingContext() {
+            this(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+
+        protected MethodParsingContext(int maxDepth, int maxNodes) {
+            this(maxDepth, maxNodes, null);
+        }
+
+        protected MethodParsingContext(int maxDepth, int maxNodes, Long deadlineNanos) {
+            this(maxDepth, maxNodes, deadlineNanos, new AtomicBoolean(), new HashMap<>());
+        }
+
+        private MethodParsingContext(int maxDepth, int maxNodes, Long deadlineNanos, AtomicBoolean truncated, Map<String, MethodInfo> reusedMethods) {
+            this.maxDepth = maxDepth;
+            this.maxNodes = maxNodes;
+            this.deadlineNanos = deadlineNanos;
+            this.truncated = truncated;
+            this.reusedMethods = reusedMethods;
+        }
+
+        /**
+         * 是否限制了调用深度或方法数；只限时的解析仍是完整解析，与其它线程共享结果
+         */
+        protected boolean isLimited() {
+            return maxDepth < Integer.MAX_VALUE || maxNodes < Integer.MAX_VALUE;
+        }
+
+        /**
+         * 不限深度和方法数的新上下文，沿用截止时间和提前结束标记
+         */
+        protected MethodParsingContext forkUnlimited() {
+            return new MethodParsingContext(Integer.MAX_VALUE, Integer.MAX_VALUE, deadlineNanos, truncated, reusedMethods);
+        }
+
+        /**
+         * 超时或当前线程被中断时标记为提前结束
+         */
+        protected boolean checkTruncated() {
+            if (!truncated.get() && ((null != deadlineNanos && System.nanoTime() - deadlineNanos > 0) || Thread.currentThread().isInterrupted())) {
+                truncated.set(true);
+            }
+            return truncated.get();
+        }
+
+        protected boolean isTruncated() {
+            return truncated.get();
+        }
+
+    }
+
+    /**
+     * @param resolved 被调用类型是否已解析，只有类型名时的判断规则不同，分开缓存
+     */
+    private record CallingTypePair(String calleeTypeName, String callerTypeName, boolean resolved) {}
+
+    private record ParsingTask(String methodId, MethodInfo methodInfo, Thread owner, CompletableFuture<MethodInfo> future) {}
+
+    /**
+     * 解析任务的所属线程提前结束，放弃了该方法，等待的线程收到后自行接手解析
+     */
+    private static class ParsingAbandonedException extends RuntimeException {
+
+        private ParsingAbandonedException(String methodId) {
+            super("方法解析已提前结束：" + methodId, null, false, false);
+        }
+
     }
 
     public MethodInfo parseMethod(String methodId) {
-        if (methods.containsKey(methodId)) {
-            return methods.get(methodId);
+        return toMethodInfo(parseMethodFully(methodId, null));
+    }
+
+    /**
+     * 与 {@link #parseMethod(String)} 相同，但返回紧凑的调用图，命中缓存时不必还原成 {@link MethodInfo}
+     */
+    public CompactMethodGraph parseMethodGraph(String methodId) {
+        return toGraph(parseMethodFully(methodId, null));
+    }
+
+    /**
+     * 解析结果：来自缓存的只有调用图，本次解析出的只有 {@link MethodInfo}，完整解析并放入缓存的两者都有；缺少的形式按需转换
+     */
+    private record Parsed(CompactMethodGraph graph, MethodInfo methodInfo, boolean truncated) {}
+
+    private MethodInfo toMethodInfo(Parsed parsed) {
+        return null != parsed.methodInfo() ? parsed.methodInfo() : materialize(parsed.graph());
+    }
+
+    private static CompactMethodGraph toGraph(Parsed parsed) {
+        return null != parsed.graph() ? parsed.graph() : CompactMethodGraph.of(parsed.methodInfo());
+    }
+
+    /**
+     * 把缓存的调用图还原成 {@link MethodInfo}，方法声明按方法ID到AST索引中查找
+     */
+    private MethodInfo materialize(CompactMethodGraph graph) {
+        return graph.toMethodInfo(id -> findMethod(id).orElse(null));
+    }
+
+    /**
+     * 完整解析，同一个方法只由一个线程解析，其它线程等待其结果
+     *
+     * @param deadlineNanos 截止时间，为null时不限时；超时后返回已解析出的部分，未完成的方法不会进入缓存
+     */
+    private Parsed parseMethodFully(String methodId, Long deadlineNanos) {
+        CompactMethodGraph cached = methodCache.getIfPresent(methodId);
+        if (null != cached) {
+            return new Parsed(cached, null, false);
+        }
+        boolean outermost = null == ownedTasks.get();
+        if (outermost) {
+            CompactMethodGraph loaded = loadFromGraphCache(methodId);
+            if (null != loaded) {
+                return new Parsed(loaded, null, false);
+            }
+        }
+        MethodParsingContext parsingContext = new MethodParsingContext(Integer.MAX_VALUE, Integer.MAX_VALUE, deadlineNanos);
+        MethodInfo methodInfo = inParsingScope(parsingContext, () -> findMethod(MethodId.parse(methodId))
+                .map(declaration -> parseMethod(declaration, parsingContext))
+                .orElseThrow(() -> new IllegalStateException("找不到方法声明：" + methodId)));
+        if (parsingContext.isTruncated()) {
+            log.info("方法 {} 解析超时，返回部分调用图", methodId);
+            return new Parsed(null, methodInfo, true);
+        }
+        if (!outermost) {
+            return new Parsed(null, methodInfo, false);
+        }
+        CompactMethodGraph graph = CompactMethodGraph.of(methodInfo);
+        CompactMethodGraph cachedGraph = putToCache(methodId, graph);
+        if (cachedGraph == graph) {
+            saveToGraphCache(methodId, graph);
+        }
+        // 与其它线程同时完成时以先放入缓存的为准
+        return new Parsed(cachedGraph, methodInfo, false);
+    }
+
+    /**
+     * 相关源码文件都没有变化时，从磁盘缓存读取调用图并放入缓存
+     */
+    private CompactMethodGraph loadFromGraphCache(String methodId) {
+        if (null == graphCache) {
+            return null;
+        }
+        return graphCache.load(methodId, getTypeNamesHash())
+                .map(graph -> {
+                    log.info("已从磁盘缓存加载方法调用图 {}", methodId);
+                    return putToCache(methodId, graph);
+                })
+                .orElse(null);
+    }
+
+    /**
+     * 记录图中所有在AST索引里的类型所在的文件及解析时的内容哈希，其中任何一个变化都会让缓存失效
+     */
+    private void saveToGraphCache(String methodId, CompactMethodGraph graph) {
+        if (null == graphCache) {
+            return;
+        }
+        Map<File, String> sourceHashes = new HashMap<>();
+        for (int i = 0; i < graph.size(); i++) {
+            Optional.ofNullable(astIndex.getInfoByClassName(MethodId.parse(graph.getMethodId(i)).getClassName()))
+                    .ifPresent(info -> sourceHashes.put(info.file, info.contentHash));
+        }
+        graphCache.save(methodId, graph, sourceHashes, getTypeNamesHash());
+    }
+
+    /**
+     * 新增或删除类型可能改变覆写关系，所以缓存还要与项目中的类型集合对应
+     */
+    private String getTypeNamesHash() {
+        String hash = typeNamesHash;
+        if (null == hash) {
+            hash = HashUtils.sha256(String.join("\n", new TreeSet<>(astIndex.getClassNameToFileInfo().keySet())));
+            typeNamesHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * 只解析到指定的调用深度和方法数，边界上的方法标记为可展开，之后可以以它为入口继续解析
+     * <p>
+     * 已完整解析过的方法直接复用缓存；本次解析出的方法不完整，不会进入缓存
+     */
+    public MethodInfo parseMethod(String methodId, int maxDepth, int maxNodes) {
+        return parseMethod(methodId, maxDepth, maxNodes, 0).getMethodInfo();
+    }
+
+    /**
+     * 在 {@link #parseMethod(String, int, int)} 的基础上限制解析时间，超时或线程被中断后停止展开，返回已解析出的部分
+     * <p>
+     * 不限深度和方法数时与 {@link #parseMethod(String)} 一样是完整解析：与其它线程共享解析结果，按时完成的结果会放入缓存；
+     * 超时后当前线程未完成的方法不进入缓存，等待它们的线程会自行接手解析
+     *
+     * @param timeoutMillis 不大于0时不限时
+     */
+    public MethodParsingResult parseMethod(String methodId, int maxDepth, int maxNodes, long timeoutMillis) {
+        Parsed parsed = parse(methodId, maxDepth, maxNodes, timeoutMillis);
+        return new MethodParsingResult(toMethodInfo(parsed), parsed.truncated());
+    }
+
+    /**
+     * 与 {@link #parseMethod(String, int, int, long)} 相同，但返回紧凑的调用图，命中缓存时不必还原成 {@link MethodInfo}
+     */
+    public MethodGraphParsingResult parseMethodGraph(String methodId, int maxDepth, int maxNodes, long timeoutMillis) {
+        Parsed parsed = parse(methodId, maxDepth, maxNodes, timeoutMillis);
+        return new MethodGraphParsingResult(toGraph(parsed), parsed.truncated());
+    }
+
+    private Parsed parse(String methodId, int maxDepth, int maxNodes, long timeoutMillis) {
+        CompactMethodGraph cached = methodCache.getIfPresent(methodId);
+        if (null != cached) {
+            return new Parsed(cached, null, false);
+        }
+        Long deadlineNanos = timeoutMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) : null;
+        if (maxDepth == Integer.MAX_VALUE && maxNodes == Integer.MAX_VALUE) {
+            return parseMethodFully(methodId, deadlineNanos);
         }
+        MethodParsingContext parsingContext = new MethodParsingContext(Math.max(1, maxDepth), Math.max(1, maxNodes), deadlineNanos);
         MethodInfo methodInfo = findMethod(MethodId.parse(methodId))
-                .map(declaration -> parseMethod(declaration, new MethodParsingContext()))
+                .map(declaration -> parseMethod(declaration, parsingContext))
                 .orElseThrow(() -> new IllegalStateException("找不到方法声明：" + methodId));
-        methods.put(methodId, methodInfo);
-        return methodInfo;
+        if (parsingContext.isTruncated()) {
+            log.info("方法 {} 解析超时，返回部分调用图", methodId);
+        }
+        return new Parsed(null, methodInfo, parsingContext.isTruncated());
     }
 
+    /**
+     * 用显式的栈逐层展开调用关系，调用链的深度只受堆内存限制，不受线程栈大小限制
+     */
     protected MethodInfo parseMethod(MethodDeclaration method, MethodParsingContext parsingContext) {
+        if (!parsingContext.isLimited() && null == ownedTasks.get()) {
+            return inParsingScope(parsingContext, () -> parseMethod(method, parsingContext));
+        }
+        Deque<ParsingFrame> stack = new ArrayDeque<>();
+        MethodInfo[] result = new MethodInfo[1];
+        enterMethod(method, parsingContext, stack, methodInfo -> result[0] = methodInfo, null);
+        while (!stack.isEmpty()) {
+            if (parsingContext.checkTruncated()) {
+                truncate(stack);
+                break;
+            }
+            try {
+                step(stack.peek(), stack);
+            } catch (RuntimeException e) {
+                unwind(stack, e);
+            }
+        }
+        return result[0];
+    }
+
+    /**
+     * 解析中的方法，逐个处理其调用和覆写，需要解析其它方法时压入新的帧
+     */
+    protected static class ParsingFrame {
+
+        private final MethodInfo methodInfo;
+
+        private final MethodDeclaration method;
+
+        private final MethodParsingContext parsingContext;
+
+        private final List<MethodCallExpr> callExpressions;
+
+        private int nextCall = 0;
+
+        private final List<MethodCalling> dependencies = new ArrayList<>();
+
+        /**
+         * 调用处理完之后才查找，为null表示还在处理调用
+         */
+        private List<MethodDeclaration> overrideMethods;
+
+        private int nextOverride = 0;
+
+        private final List<MethodInfo> overrides = new ArrayList<>();
+
+        /**
+         * 解析完成后把结果交给调用方
+         */
+        private final Consumer<MethodInfo> onParsed;
+
+        /**
+         * 不为null时，解析本方法出错不再向外抛出，而是回退到这一帧并执行它
+         */
+        private final Runnable onError;
+
+        private ParsingFrame(MethodInfo methodInfo, MethodDeclaration method, MethodParsingContext parsingContext, Consumer<MethodInfo> onParsed, Runnable onError) {
+            this.methodInfo = methodInfo;
+            this.method = method;
+            this.parsingContext = parsingContext;
+            this.callExpressions = method.getBody()
+                    .map(block -> block.findAll(MethodCallExpr.class))
+                    .orElse(Collections.emptyList());
+            this.onParsed = onParsed;
+            this.onError = onError;
+        }
+
+    }
+
+    /**
+     * 开始解析一个方法：能直接得到结果（缓存、其它线程的解析结果、边界方法）时立即交给onParsed，否则压入新的帧
+     */
+    protected void enterMethod(MethodDeclaration method, MethodParsingContext parsingContext, Deque<ParsingFrame> stack,
+                               Consumer<MethodInfo> onParsed, Runnable onError) {
+        if (parsingContext.isLimited()) {
+            enterMethodWithinLimit(method, parsingContext, stack, onParsed, onError);
+            return;
+        }
         MethodId methodId = MethodId.from(method);
         String methodIdStr = methodId.toString();
-        if (methods.containsKey(methodIdStr)) {
-            return methods.get(methodIdStr);
+        CompactMethodGraph cached = methodCache.getIfPresent(methodIdStr);
+        if (null != cached) {
+            onParsed.accept(reuse(methodIdStr, cached, parsingContext));
+            return;
+        }
+        MethodInfo methodInfo = MethodInfo.builder()
+                .id(methodId)
+                .declaration(method)
+                .dependencies(Collections.emptyList())
+                .overrides(Collections.emptyList())
+                .build();
+        ParsingTask task = new ParsingTask(methodIdStr, methodInfo, Thread.currentThread(), new CompletableFuture<>());
+        ParsingTask existing;
+        while (null != (existing = parsingTasks.putIfAbsent(methodIdStr, task))) {
+            MethodInfo awaited = await(existing, parsingContext);
+            if (null != awaited) {
+                onParsed.accept(awaited);
+                return;
+            }
+            if (parsingContext.isTruncated()) {
+                // 等待超时，作为边界方法
+                methodInfo.setExpandable(true);
+                onParsed.accept(methodInfo);
+                return;
+            }
+            // 所属线程提前结束并放弃了该方法，重新登记后由当前线程接手
+        }
+        cached = methodCache.getIfPresent(methodIdStr);
+        if (null != cached) {
+            // 其它线程刚刚发布了结果
+            MethodInfo parsed = reuse(methodIdStr, cached, parsingContext);
+            parsingTasks.remove(methodIdStr, task);
+            task.future().complete(parsed);
+            onParsed.accept(parsed);
+            return;
         }
+        ownedTasks.get().add(task);
         log.info("正在解析方法 {}", methodId);
+        parsingContext.recursionLink.put(methodIdStr, methodInfo);
+        stack.push(new ParsingFrame(methodInfo, method, parsingContext, onParsed, onError));
+    }
+
+    /**
+     * 已完整解析过的方法直接复用缓存；超出深度或数量限制的方法作为边界，标记为可展开，不再展开其调用关系
+     */
+    protected void enterMethodWithinLimit(MethodDeclaration method, MethodParsingContext parsingContext, Deque<ParsingFrame> stack,
+                                          Consumer<MethodInfo> onParsed, Runnable onError) {
+        MethodId methodId = MethodId.from(method);
+        String methodIdStr = methodId.toString();
+        MethodInfo parsed = Optional.ofNullable(methodCache.getIfPresent(methodIdStr))
+                .map(graph -> reuse(methodIdStr, graph, parsingContext))
+                .orElseGet(() -> parsingContext.limitedMethods.get(methodIdStr));
+        if (null != parsed) {
+            onParsed.accept(parsed);
+            return;
+        }
         MethodInfo methodInfo = MethodInfo.builder()
                 .id(methodId)
                 .declaration(method)
                 .dependencies(Collections.emptyList())
                 .overrides(Collections.emptyList())
                 .build();
-        methods.put(methodIdStr, methodInfo);
+        parsingContext.limitedMethods.put(methodIdStr, methodInfo);
+        if (parsingContext.recursionLink.size() >= parsingContext.maxDepth || parsingContext.limitedMethods.size() > parsingContext.maxNodes) {
+            methodInfo.setExpandable(true);
+            onParsed.accept(methodInfo);
+            return;
+        }
+        log.info("正在解析方法 {}", methodId);
         parsingContext.recursionLink.put(methodIdStr, methodInfo);
-        methodInfo.setDependencies(parseMethodDependencies(method, parsingContext));
-        methodInfo.setOverrides(parseOverrides(method, parsingContext));
-        parsingContext.recursionLink.remove(methodIdStr);
-        return methodInfo;
+        stack.push(new ParsingFrame(methodInfo, method, parsingContext, onParsed, onError));
+    }
+
+    /**
+     * 处理栈顶方法的下一个调用或覆写，都处理完后出栈
+     */
+    protected void step(ParsingFrame frame, Deque<ParsingFrame> stack) {
+        if (frame.nextCall < frame.callExpressions.size()) {
+            parseCalling(frame.callExpressions.get(frame.nextCall++), frame, stack);
+            return;
+        }
+        if (null == frame.overrideMethods) {
+            if (!frame.callExpressions.isEmpty()) {
+                frame.parsingContext.parsedCalling.clear();
+                frame.methodInfo.setDependencies(frame.dependencies);
+            }
+            frame.overrideMethods = findOverrideMethods(frame.method);
+            return;
+        }
+        if (frame.nextOverride < frame.overrideMethods.size()) {
+            enterMethod(frame.overrideMethods.get(frame.nextOverride++), frame.parsingContext, stack, frame.overrides::add, null);
+            return;
+        }
+        frame.methodInfo.setOverrides(List.copyOf(frame.overrides));
+        frame.parsingContext.recursionLink.remove(frame.methodInfo.getId().toString());
+        stack.pop();
+        frame.onParsed.accept(frame.methodInfo);
+    }
+
+    /**
+     * 提前结束时，栈中的方法只保留已解析出的调用和覆写，标记为可展开，依次交给调用方
+     */
+    private void truncate(Deque<ParsingFrame> stack) {
+        while (!stack.isEmpty()) {
+            ParsingFrame frame = stack.pop();
+            if (frame.nextCall > 0) {
+                frame.methodInfo.setDependencies(frame.dependencies);
+            }
+            frame.methodInfo.setOverrides(List.copyOf(frame.overrides));
+            frame.methodInfo.setExpandable(true);
+            frame.parsingContext.recursionLink.remove(frame.methodInfo.getId().toString());
+            frame.onParsed.accept(frame.methodInfo);
+        }
+    }
+
+    /**
+     * 出错时逐帧出栈，直到遇到能处理错误的帧；没有这样的帧则向外抛出
+     */
+    private void unwind(Deque<ParsingFrame> stack, RuntimeException e) {
+        while (!stack.isEmpty()) {
+            ParsingFrame frame = stack.pop();
+            frame.parsingContext.recursionLink.remove(frame.methodInfo.getId().toString());
+            if (null != frame.onError) {
+                log.debug("解析方法出错，已忽略 {}", frame.methodInfo.getId(), e);
+                frame.onError.run();
+                return;
+            }
+        }
+        throw e;
+    }
+
+    /**
+     * 最外层的解析结束后把本线程创建的所有任务的结果交给等待的线程，解析出错则让它们也收到异常；
+     * 这些方法不单独放入缓存，由各自的入口方法缓存整张调用图
+     * <p>
+     * 提前结束时只交出已完整解析的方法，其余任务标记为已放弃，由等待它们的线程自行接手
+     */
+    private MethodInfo inParsingScope(MethodParsingContext parsingContext, Supplier<MethodInfo> parsing) {
+        if (null != ownedTasks.get()) {
+            return parsing.get();
+        }
+        List<ParsingTask> tasks = new ArrayList<>();
+        ownedTasks.set(tasks);
+        try {
+            MethodInfo methodInfo = parsing.get();
+            Set<MethodInfo> incomplete = parsingContext.isTruncated() ? findIncomplete(tasks, parsingContext) : Collections.emptySet();
+            for (ParsingTask task : tasks) {
+                if (incomplete.contains(task.methodInfo())) {
+                    parsingTasks.remove(task.methodId(), task);
+                    task.future().completeExceptionally(new ParsingAbandonedException(task.methodId()));
+                    continue;
+                }
+                parsingTasks.remove(task.methodId(), task);
+                task.future().complete(task.methodInfo());
+            }
+            return methodInfo;
+        } catch (RuntimeException | Error e) {
+            for (ParsingTask task : tasks) {
+                parsingTasks.remove(task.methodId(), task);
+                task.future().completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            ownedTasks.remove();
+        }
+    }
+
+    /**
+     * 找出提前结束后不完整的方法：标记为可展开的方法，以及直接或间接调用、覆写了它们的方法
+     *
+     * @return 按引用比较的集合
+     */
+    private Set<MethodInfo> findIncomplete(List<ParsingTask> tasks, MethodParsingContext parsingContext) {
+        Map<MethodInfo, List<MethodInfo>> referrers = new IdentityHashMap<>();
+        Set<MethodInfo> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<MethodInfo> toVisit = new ArrayDeque<>();
+        Deque<MethodInfo> incompleteToVisit = new ArrayDeque<>();
+        tasks.forEach(task -> toVisit.add(task.methodInfo()));
+        while (!toVisit.isEmpty()) {
+            MethodInfo current = toVisit.pop();
+            if (!visited.add(current)) {
+                continue;
+            }
+            if (current.isExpandable()) {
+                incompleteToVisit.add(current);
+            }
+            // 从缓存还原的调用图是完整的，不必展开
+            if (parsingContext.reusedMethods.get(current.getId().toString()) == current) {
+                continue;
+            }
+            Stream.concat(current.getDependencies().stream().map(MethodCalling::getCallee).filter(Objects::nonNull), current.getOverrides().stream())
+                    .forEach(child -> {
+                        referrers.computeIfAbsent(child, key -> new ArrayList<>(2)).add(current);
+                        toVisit.add(child);
+                    });
+        }
+        Set<MethodInfo> incomplete = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (!incompleteToVisit.isEmpty()) {
+            MethodInfo current = incompleteToVisit.pop();
+            if (incomplete.add(current)) {
+                incompleteToVisit.addAll(referrers.getOrDefault(current, Collections.emptyList()));
+            }
+        }
+        return incomplete;
     }
 
-    protected Optional<MethodDeclaration> findMethod(MethodId methodId) {
+    /**
+     * 等待其它线程的解析结果
+     * <p>
+     * 同一线程内的重入是递归调用，直接返回解析中的方法，与单线程时一致；
+     * 线程之间循环等待时也返回解析中的方法，它的依赖会在所属线程解析完成后填充
+     *
+     * @return 为null表示需要当前线程接手：所属线程提前结束并放弃了该方法，或者等待超时（此时上下文已标记为提前结束）
+     */
+    private MethodInfo await(ParsingTask task, MethodParsingContext parsingContext) {
+        Thread current = Thread.currentThread();
+        if (task.owner() == current) {
+            return task.methodInfo();
+        }
+        synchronized (waitingTasks) {
+            if (!task.future().isDone() && isWaitingFor(task.owner(), current)) {
+                log.debug("方法 {} 正在被其它线程解析，且该线程在等待当前线程", task.methodId());
+                return task.methodInfo();
+            }
+            waitingTasks.put(current, task);
+        }
+        try {
+            if (null == parsingContext.deadlineNanos) {
+                return task.future().join();
+            }
+            return task.future().get(Math.max(0, parsingContext.deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            parsingContext.truncated.set(true);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            parsingContext.truncated.set(true);
+            return null;
+        } catch (CompletionException | ExecutionException e) {
+            if (e.getCause() instanceof ParsingAbandonedException) {
+                return null;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("等待方法解析结果出错 " + task.methodId(), e.getCause());
+        } finally {
+            synchronized (waitingTasks) {
+                waitingTasks.remove(current);
+            }
+        }
+    }
+
+    /**
+     * 沿等待关系查找，判断thread是否直接或间接在等待target
+     */
+    private boolean isWaitingFor(Thread thread, Thread target) {
+        while (null != thread) {
+            if (thread == target) {
+                return true;
+            }
+            ParsingTask waiting = waitingTasks.get(thread);
+            thread = null == waiting ? null : waiting.owner();
+        }
+        return false;
+    }
+
+    /**
+     * @return 方法解析结果缓存的命中、未命中和淘汰次数
+     */
+    public CacheStats getMethodCacheStats() {
+        return methodCache.stats();
+    }
+
+    /**
+     * 记录图中方法所在的类型并放入缓存，已有缓存时不替换
+     *
+     * @return 缓存中的调用图
+     */
+    private CompactMethodGraph putToCache(String methodId, CompactMethodGraph graph) {
+        Set<String> typeNames = new HashSet<>();
+        for (int i = 0; i < graph.size(); i++) {
+            typeNames.add(MethodId.parse(graph.getMethodId(i)).getClassName());
+        }
+        // 先记录再放入，放入后发生的源码变更一定能清除它
+        cacheTracker.track(methodId, typeNames, typeName -> Optional.ofNullable(astIndex.getInfoByClassName(typeName)).map(info -> info.file).orElse(null));
+        CompactMethodGraph existing = methods.putIfAbsent(methodId, graph);
+        return null == existing ? graph : existing;
+    }
+
+    /**
+     * 解析中用到已缓存的调用图时还原成 {@link MethodInfo}，同一次解析中每张图只还原一次
+     */
+    private MethodInfo reuse(String methodId, CompactMethodGraph graph, MethodParsingContext parsingContext) {
+        return parsingContext.reusedMethods.computeIfAbsent(methodId, id -> materialize(graph));
+    }
+
+    /**
+     * 源码变更后，清除包含变更文件中的方法或父类型（覆写关系可能变化）中的方法的调用图
+     */
+    protected void onAstIndexChange(AstIndexChange change) {
+        inheritMethodParser.clearCache();
+        typeNamesHash = null;
+        // 继承关系和类型所在模块都可能变化
+        callingTypes.clear();
+        callResolver.invalidateAll();
+        Set<String> parentTypes = new HashSet<>();
+        for (String typeName : change.getTypeNames()) {
+            astIndex.findTypeInIndex(typeName).ifPresent(type -> astIndex.getAllParentTypes(type).values().stream()
+                    .map(JavaTypeInfo::getClassQualifiedName)
+                    .forEach(parentTypes::add));
+        }
+        Set<String> affected = cacheTracker.collectAffected(change.getFiles(), change.getTypeNames(), parentTypes);
+        int sizeBefore = methods.size();
+        methods.keySet().removeAll(affected);
+        log.info("源码变更，已清除{}个方法的调用图", sizeBefore - methods.size());
+    }
+
+    public Optional<MethodDeclaration> findMethod(MethodId methodId) {
         return astIndex.findTypeInIndex(methodId.getClassName()).map(type -> findMethod(type, methodId));
     }
 
@@ -104,7 +808,9 @@ public class MethodParser {
     }
 
     protected MethodDeclaration findMethodInThisType(TypeDeclaration<?> type, MethodId methodId) {
-        List<MethodDeclaration> candidates = type.findAll(MethodDeclaration.class, method -> inheritMethodParser.parseParentMethods(method).isCompatibleMethod(methodId));
+        List<MethodDeclaration> candidates = MethodTable.of(type).getMethods(methodId.getMethodName(), methodId.getParamTypes().size()).stream()
+                .filter(method -> inheritMethodParser.parseParentMethods(method).isCompatibleMethod(methodId))
+                .collect(Collectors.toCollection(ArrayList::new));
         if (CollectionUtils.isEmpty(candidates)) {
             return lombokParser.findMethod(type, methodId);
         }
@@ -146,51 +852,49 @@ public class MethodParser {
         return candidates.get(0);
     }
 
-    protected List<MethodCalling> parseMethodDependencies(MethodDeclaration method, MethodParsingContext parsingContext) {
-        List<MethodCallExpr> methodCallExpressions = method.getBody()
-                .map(block -> block.findAll(MethodCallExpr.class))
-                .orElse(null);
-        if (CollectionUtils.isEmpty(methodCallExpressions)) {
-            return Collections.emptyList();
+    /**
+     * 同一个方法在一个方法中被多次调用时只保留一次
+     */
+    protected void addDependency(ParsingFrame frame, MethodCalling calling) {
+        if (null == calling) {
+            return;
         }
-        List<MethodCalling> result = new ArrayList<>();
-        for (MethodCallExpr callExpr : methodCallExpressions) {
-            MethodCalling calling = parseCalling(callExpr, method, parsingContext);
-            if (null == calling) {
-                continue;
-            }
-            String calleeMethodId = Optional.ofNullable(calling.getCallee()).map(MethodInfo::getId).map(MethodId::toString).orElse(null);
-            if (null != calleeMethodId) {
-                if (parsingContext.parsedCalling.contains(calleeMethodId)) {
-                    continue;
-                }
-                parsingContext.parsedCalling.add(calleeMethodId);
-            }
-            if (config.getMethodCallingFilter().test(calling, astIndex)) {
-                result.add(calling);
+        String calleeMethodId = Optional.ofNullable(calling.getCallee()).map(MethodInfo::getId).map(MethodId::toString).orElse(null);
+        if (null != calleeMethodId) {
+            if (frame.parsingContext.parsedCalling.contains(calleeMethodId)) {
+                return;
             }
+            frame.parsingContext.parsedCalling.add(calleeMethodId);
+        }
+        if (config.getMethodCallingFilter().test(calling, astIndex)) {
+            frame.dependencies.add(calling);
         }
-        parsingContext.parsedCalling.clear();
-        return result;
     }
 
-    protected MethodCalling parseCalling(MethodCallExpr expr, MethodDeclaration callerMethod, MethodParsingContext parsingContext) {
-        ResolvedMethodDeclaration calleeMethod = AstUtils.tryResolve(expr);
+    /**
+     * 解析一个调用，被调用方法需要继续解析时压入新的帧，解析完成后再加入调用方的依赖
+     */
+    protected void parseCalling(MethodCallExpr expr, ParsingFrame frame, Deque<ParsingFrame> stack) {
+        MethodDeclaration callerMethod = frame.method;
+        MethodParsingContext parsingContext = frame.parsingContext;
+        ResolvedMethodDeclaration calleeMethod = callResolver.resolve(expr);
         if (null == calleeMethod) {
-            return adjustUnsolved(unsolvedMethodParser.buildUnsolveMethodCalling(expr, callerMethod), callerMethod);
+            adjustUnsolved(unsolvedMethodParser.buildUnsolveMethodCalling(expr, callerMethod), frame, stack);
+            return;
         }
         ResolvedReferenceTypeDeclaration calleeType = calleeMethod.declaringType();
         MethodId calleeMethodId = MethodId.from(calleeMethod);
         String calleeMethodIdStr = calleeMethodId.toString();
         if (parsingContext.parsedCalling.contains(calleeMethodIdStr)) {
-            return null;
+            return;
         }
         MethodInfo recursion = parsingContext.recursionLink.get(calleeMethodIdStr);
         if (null != recursion) {
-            return MethodCalling.recursive(recursion, judgeMethodCallingType(calleeType, AstUtils.findDeclaringType(callerMethod)));
+            addDependency(frame, MethodCalling.recursive(recursion, judgeMethodCallingType(calleeType, AstUtils.findDeclaringType(callerMethod))));
+            return;
         }
         if (!config.getMethodFilter().test(calleeMethod, calleeType)) {
-            return MethodCalling.builder()
+            addDependency(frame, MethodCalling.builder()
                     .callee(MethodInfo.builder()
                             .id(calleeMethodId)
                             .declaration(null)
@@ -198,19 +902,69 @@ public class MethodParser {
                             .overrides(Collections.emptyList())
                             .build())
                     .callingType(judgeMethodCallingType(calleeType, AstUtils.findDeclaringType(callerMethod)))
-                    .build();
+                    .build());
+            return;
         }
         MethodDeclaration calleeMethodDeclaration = findMethod(calleeMethodId).orElse(null);
         if (null == calleeType || null == calleeMethodDeclaration) {
-            return MethodCalling.library(calleeMethodId, calleeMethodDeclaration);
+            addDependency(frame, MethodCalling.library(calleeMethodId, calleeMethodDeclaration));
+            return;
         }
-        return MethodCalling.builder()
-                .callee(parseMethod(calleeMethodDeclaration, parsingContext))
+        enterMethod(calleeMethodDeclaration, parsingContext, stack, callee -> addDependency(frame, MethodCalling.builder()
+                .callee(callee)
                 .callingType(judgeMethodCallingType(calleeType, AstUtils.findDeclaringType(callerMethod)))
-                .build();
+                .build()), null);
+    }
+
+    /**
+     * 只解析调用的目标方法及调用类型，不继续解析目标方法的调用关系
+     *
+     * @param callerType 发起调用的类型，调用可以位于方法、构造方法、初始化块或字段初始化表达式中
+     * @return 无法解析时返回null，否则返回的被调用方法只有ID
+     */
+    public MethodCalling resolveCalling(MethodCallExpr expr, TypeDeclaration<?> callerType) {
+        ResolvedMethodDeclaration calleeMethod = callResolver.resolve(expr);
+        if (null != calleeMethod) {
+            MethodCalling calling = MethodCalling.library(MethodId.from(calleeMethod), null);
+            calling.setCallingType(judgeMethodCallingType(calleeMethod.declaringType(), callerType));
+            return calling;
+        }
+        MethodCalling calling = unsolvedMethodParser.buildUnsolveMethodCalling(expr, callerType);
+        if (null == calling || null == calling.getCallee()) {
+            return null;
+        }
+        MethodInfo callee = calling.getCallee();
+        findMethod(callee.getId()).ifPresent(methodDeclaration -> callee.setId(MethodId.from(methodDeclaration)));
+        calling.setCallingType(judgeMethodCallingType(callee.getId().getClassName(), callerType));
+        return calling;
+    }
+
+    /**
+     * @return 该方法覆写或实现的父类型方法，找不到方法声明时返回空列表
+     */
+    public List<MethodId> findParentMethods(MethodId methodId) {
+        return findMethod(methodId)
+                .map(inheritMethodParser::parseParentMethods)
+                .map(link -> Stream.concat(link.getFromExtend().stream(), link.getFromImpl().stream())
+                        .map(MethodId::from)
+                        .filter(parent -> !parent.equals(methodId))
+                        .distinct()
+                        .toList())
+                .orElse(Collections.emptyList());
     }
 
     protected MethodCallingType judgeMethodCallingType(ResolvedTypeDeclaration calleeType, TypeDeclaration<?> callerType) {
+        CallingTypePair pair = new CallingTypePair(AstUtils.getName(calleeType), AstUtils.getName(callerType), true);
+        MethodCallingType cached = callingTypes.get(pair);
+        if (null != cached) {
+            return cached;
+        }
+        MethodCallingType callingType = classifyCalling(calleeType, callerType);
+        callingTypes.put(pair, callingType);
+        return callingType;
+    }
+
+    private MethodCallingType classifyCalling(ResolvedTypeDeclaration calleeType, TypeDeclaration<?> callerType) {
         if (ParserConstants.isJdkType(calleeType)) {
             return MethodCallingType.JDK;
         }
@@ -229,9 +983,20 @@ public class MethodParser {
     }
 
     protected MethodCallingType judgeMethodCallingType(String calleeTypeName, TypeDeclaration<?> callerType) {
+        CallingTypePair pair = new CallingTypePair(calleeTypeName, AstUtils.getName(callerType), false);
+        MethodCallingType cached = callingTypes.get(pair);
+        if (null != cached) {
+            return cached;
+        }
+        MethodCallingType callingType = classifyCalling(calleeTypeName, callerType);
+        callingTypes.put(pair, callingType);
+        return callingType;
+    }
+
+    private MethodCallingType classifyCalling(String calleeTypeName, TypeDeclaration<?> callerType) {
         var calleeType = astIndex.trySolveReferenceTypeDeclaration(calleeTypeName).orElse(null);
         if (null != calleeType) {
-            return judgeMethodCallingType(calleeType, callerType);
+            return classifyCalling(calleeType, callerType);
         }
         String callerTypeName = AstUtils.getName(callerType);
         if (calleeTypeName.equals(callerTypeName)) {
@@ -243,7 +1008,7 @@ public class MethodParser {
         return MethodCallingType.LIBRARY;
     }
 
-    protected List<MethodInfo> parseOverrides(MethodDeclaration method, MethodParsingContext parsingContext) {
+    protected List<MethodDeclaration> findOverrideMethods(MethodDeclaration method) {
         MethodId methodId = MethodId.from(method);
         TypeDeclaration<?> declaringType = AstUtils.findDeclaringType(method);
         if (!(declaringType instanceof ClassOrInterfaceDeclaration classOrInterfaceDeclaration)) {
@@ -253,22 +1018,27 @@ public class MethodParser {
                 .stream()
                 .map(subType -> findMethodInThisType(subType, methodId))
                 .filter(Objects::nonNull)
-                .map(methodDeclaration -> parseMethod(methodDeclaration, parsingContext))
                 .toList();
     }
 
-    protected MethodCalling adjustUnsolved(MethodCalling methodCalling, MethodDeclaration callerMethod) {
+    /**
+     * 未能解析的调用如果在AST索引中找到了方法声明，解析该方法后再加入调用方的依赖；解析出错时保留已找到的声明
+     */
+    protected void adjustUnsolved(MethodCalling methodCalling, ParsingFrame frame, Deque<ParsingFrame> stack) {
         if (null == methodCalling) {
-            return null;
+            return;
         }
+        MethodDeclaration callerMethod = frame.method;
         MethodInfo callee = methodCalling.getCallee();
         if (null == callee || null != callee.getDeclaration()) {
-            return methodCalling;
+            addDependency(frame, methodCalling);
+            return;
         }
         MethodDeclaration methodDeclaration = findMethod(callee.getId()).orElse(null);
         if (null == methodDeclaration) {
             methodCalling.setCallingType(judgeMethodCallingType(callee.getId().getClassName(), AstUtils.findDeclaringType(callerMethod)));
-            return methodCalling;
+            addDependency(frame, methodCalling);
+            return;
         }
         callee.setDeclaration(methodDeclaration);
         callee.setId(MethodId.from(methodDeclaration));
@@ -277,12 +1047,19 @@ public class MethodParser {
         if (null != calleeType) {
             methodCalling.setCallingType(judgeMethodCallingType(calleeType, AstUtils.findDeclaringType(callerMethod)));
         }
+        Runnable onError = () -> addDependency(frame, methodCalling);
+        // 不限制深度和方法数时按独立的入口解析，不沿用当前的调用链，但仍受同一个时限约束
+        MethodParsingContext parsingContext = frame.parsingContext.isLimited() ? frame.parsingContext : frame.parsingContext.forkUnlimited();
         try {
-            MethodInfo methodInfo = parseMethod(callee.getId().toString());
-            callee.setDependencies(methodInfo.getDependencies());
-            callee.setOverrides(methodInfo.getOverrides());
-        } catch (Exception ignored) {}
-        return methodCalling;
+            enterMethod(methodDeclaration, parsingContext, stack, methodInfo -> {
+                callee.setDependencies(methodInfo.getDependencies());
+                callee.setOverrides(methodInfo.getOverrides());
+                callee.setExpandable(methodInfo.isExpandable());
+                addDependency(frame, methodCalling);
+            }, onError);
+        } catch (Exception e) {
+            onError.run();
+        }
     }
 
 }
@@ -38,11 +38,11 @@ public class ParserConstants {
 
     /**
      * 返回所有直接子类（不包括枚举和record）
-     * TODO 直接在AstIndexContext里建立索引
      */
     public static final BiFunction<ClassOrInterfaceDeclaration, AstIndex, List<ClassOrInterfaceDeclaration>> ALL_DIRECTLY_SUB_TYPE_PARSER =
-            (type, context) -> context.getAllTypeDeclaration(ClassOrInterfaceDeclaration.class)
-                    .filter(checkingType -> isDirectlySuperType(checkingType, type))
+            (type, context) -> context.getDirectSubTypes(AstUtils.getName(type)).stream()
+                    .filter(ClassOrInterfaceDeclaration.class::isInstance)
+                    .map(ClassOrInterfaceDeclaration.class::cast)
                     .toList();
 
     /**
@@ -27,6 +27,7 @@ import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionInterfaceDec
 import io.github.yuanbug.drawer.config.AstParsingConfig;
 import io.github.yuanbug.drawer.domain.ast.AstIndex;
 import io.github.yuanbug.drawer.domain.ast.JavaTypeInfo;
+import io.github.yuanbug.drawer.domain.ast.MethodTable;
 import io.github.yuanbug.drawer.domain.info.MethodCalling;
 import io.github.yuanbug.drawer.domain.info.MethodId;
 import io.github.yuanbug.drawer.parser.lombok.LombokParser;
@@ -70,6 +71,13 @@ public class UnsolvedParser {
     }
 
     public MethodCalling buildUnsolveMethodCalling(MethodCallExpr expr, MethodDeclaration callerMethod) {
+        return buildUnsolveMethodCalling(expr, AstUtils.findDeclaringType(callerMethod));
+    }
+
+    /**
+     * @param callerType 发起调用的类型，调用可以位于方法、构造方法、初始化块或字段初始化表达式中
+     */
+    public MethodCalling buildUnsolveMethodCalling(MethodCallExpr expr, TypeDeclaration<?> callerType) {
         if (!config.enableUnsolvedParser()) {
             return null;
         }
@@ -79,18 +87,17 @@ public class UnsolvedParser {
             return null;
         }
         List<String> paramTypeNames = paramTypes.stream().map(JavaTypeInfo::getClassQualifiedName).toList();
-        String calleeTypeName = parseCalleeType(expr, callerMethod, paramTypes);
+        String calleeTypeName = parseCalleeType(expr, callerType, paramTypes);
         if (StringUtils.isBlank(calleeTypeName)) {
             return null;
         }
         return MethodCalling.library(
-                new MethodId(calleeTypeName, expr.getNameAsString(), paramTypeNames),
+                MethodId.of(calleeTypeName, expr.getNameAsString(), paramTypeNames),
                 null
         );
     }
 
-    private String parseCalleeType(MethodCallExpr expr, MethodDeclaration callerMethod, List<JavaTypeInfo> paramTypes) {
-        TypeDeclaration<?> callerType = AstUtils.findDeclaringType(callerMethod);
+    private String parseCalleeType(MethodCallExpr expr, TypeDeclaration<?> callerType, List<JavaTypeInfo> paramTypes) {
         String byScope = expr.getScope()
                 .map(scope -> parseTypeByExpr(scope, callerType))
                 .map(JavaTypeInfo::getClassQualifiedName)
@@ -133,7 +140,7 @@ public class UnsolvedParser {
                     }
                     return true;
                 },
-                current -> Arrays.asList(current.getDeclaredMethods())
+                current -> ReflectUtils.getDeclaredMethods(current, methodName)
         );
     }
 
@@ -150,15 +157,8 @@ public class UnsolvedParser {
     }
 
     private boolean isMethodExistInThisType(TypeDeclaration<?> type, String methodName, List<JavaTypeInfo> paramTypes) {
-        return null != type.findFirst(MethodDeclaration.class, method -> {
-            if (!method.getNameAsString().equals(methodName)) {
-                return false;
-            }
-            int paramNum = method.getParameters().size();
-            if (paramTypes.size() != paramNum) {
-                return false;
-            }
-            for (int i = 0; i < paramNum; i++) {
+        return null != MethodTable.of(type).getMethods(methodName, paramTypes.size()).stream().filter(method -> {
+            for (int i = 0; i < paramTypes.size(); i++) {
                 Type checkingType = method.getParameter(i).getType();
                 JavaTypeInfo expectedType = paramTypes.get(i);
                 if (!astIndex.isAssignable(checkingType, expectedType.getClassQualifiedName())) {
@@ -166,7 +166,7 @@ public class UnsolvedParser {
                 }
             }
             return true;
-        }).orElseGet(() -> lombokParser.findMethod(type, methodName, paramTypes));
+        }).findFirst().orElseGet(() -> lombokParser.findMethod(type, methodName, paramTypes));
     }
 
     private JavaTypeInfo parseTypeByExpr(Expression expression, Node contextNode) {
@@ -546,7 +546,7 @@ public class UnsolvedParser {
         if (null != byImports) {
             return byImports;
         }
-        // 没有import就是相同包或者java.lang
+        // 导入、同包和java.lang中都找不到时，按同包类型处理
         String samePackageClassName = ast.getPackageDeclaration()
                 .map(NodeWithName::getNameAsString)
                 .map(packageName -> packageName + ".")
@@ -639,9 +639,7 @@ public class UnsolvedParser {
      */
     private Method tryMatchMethod(Node contextNode, Class<?> methodDeclaringClass, String methodName, NodeList<Expression> args) {
         // 先过滤方法名
-        List<Method> methods = Stream.of(methodDeclaringClass.getDeclaredMethods())
-                .filter(method -> Objects.equals(method.getName(), methodName))
-                .toList();
+        List<Method> methods = ReflectUtils.getDeclaredMethods(methodDeclaringClass, methodName);
         if (methods.isEmpty()) {
             return null;
         }
@@ -992,12 +990,7 @@ public class UnsolvedParser {
     private JavaTypeInfo findFieldTypeByName(String fieldName, JavaTypeInfo type, Node contextNode, NameParsingContext nameParsingContext) {
         Class<?> byteCode = type.getByteCode();
         if (null != byteCode) {
-            Field fieldByName = ReflectUtils.findInInheritLink(
-                    byteCode,
-                    false,
-                    field -> fieldName.equals(field.getName()),
-                    currentType -> Arrays.asList(currentType.getDeclaredFields())
-            );
+            Field fieldByName = ReflectUtils.getFieldByName(fieldName, byteCode);
             if (null != fieldByName) {
                 return JavaTypeInfo.byByteCode(fieldByName.getType());
             }
@@ -93,7 +93,7 @@ public class LombokParser {
 
     public MethodDeclaration findMethod(TypeDeclaration<?> type, String methodName, List<JavaTypeInfo> paramTypes) {
         return getIfParsingEnable(() -> {
-            MethodId methodId = new MethodId(
+            MethodId methodId = MethodId.of(
                     AstUtils.getName(type),
                     methodName,
                     paramTypes.stream().map(JavaTypeInfo::getName).toList()
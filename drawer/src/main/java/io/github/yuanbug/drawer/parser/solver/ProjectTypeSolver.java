@@ -0,0 +1,219 @@
+package io.github.yuanbug.drawer.parser.solver;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.cache.Cache;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.cache.InMemoryCache;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * 项目的类型解析器
+ * <p>
+ * 按包名把类型直接交给声明了该包的源码目录或jar包解析，不再逐个尝试所有解析器，解析结果（包括解析失败）都会缓存。
+ * 没有登记包名的解析器（如反射）对所有类型都会尝试，尝试顺序与添加顺序一致
+ * <p>
+ * {@link JavaParserTypeSolver} 会缓存解析过的文件和类型，源码修改后不会感知，所以这里自行持有它的缓存，源码变更后可以让相关缓存失效
+ *
+ * @author yuanbug
+ */
+@Slf4j
+public class ProjectTypeSolver implements TypeSolver {
+
+    private static final long MAX_CACHED_TYPES = 65536;
+
+    private final com.google.common.cache.Cache<String, SymbolReference<ResolvedReferenceTypeDeclaration>> typeCache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TYPES)
+            .recordStats()
+            .build();
+
+    /**
+     * 所有解析器，按添加顺序排列
+     */
+    private final List<TypeSolver> elements = new CopyOnWriteArrayList<>();
+
+    /**
+     * 包名 -> 声明了该包的解析器
+     */
+    private final Map<String, Set<TypeSolver>> packageToSolvers = new ConcurrentHashMap<>(1024);
+
+    /**
+     * 登记了包名的解析器，只解析所登记包中的类型
+     */
+    private final Set<TypeSolver> routedSolvers = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+
+    private final List<SourceRoot> sourceRoots = new CopyOnWriteArrayList<>();
+
+    private TypeSolver parent;
+
+    public ProjectTypeSolver(TypeSolver... elements) {
+        Arrays.stream(elements).forEach(this::add);
+    }
+
+    /**
+     * 添加解析器，jar包的解析器会按其中的类登记包名，其它解析器对所有类型都会尝试
+     */
+    public void add(TypeSolver typeSolver) {
+        typeSolver.setParent(this);
+        if (typeSolver instanceof JarTypeSolver jarTypeSolver) {
+            jarTypeSolver.getKnownClasses().forEach(className -> route(getPackageName(className), jarTypeSolver));
+        }
+        elements.add(typeSolver);
+        typeCache.invalidateAll();
+    }
+
+    /**
+     * 添加源码目录，按其中包含Java文件的目录登记包名
+     */
+    public void addSourceRoot(Path srcDir) {
+        SourceRootCaches caches = new SourceRootCaches(InMemoryCache.create(), InMemoryCache.create(), InMemoryCache.create());
+        JavaParser javaParser = new JavaParser(new ParserConfiguration().setLanguageLevel(ParserConfiguration.LanguageLevel.BLEEDING_EDGE));
+        JavaParserTypeSolver typeSolver = new JavaParserTypeSolver(srcDir, javaParser, caches.parsedFiles(), caches.parsedDirectories(), caches.foundTypes());
+        SourceRoot sourceRoot = new SourceRoot(srcDir.toAbsolutePath(), typeSolver, caches);
+        // 即使目前没有任何Java文件，也只解析登记过的包
+        routedSolvers.add(typeSolver);
+        try (Stream<Path> paths = Files.walk(srcDir)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(".java"))
+                    .forEach(javaFile -> routeSourceFile(sourceRoot, javaFile.toAbsolutePath()));
+        } catch (IOException e) {
+            log.warn("遍历源码目录出错 {}", srcDir, e);
+        }
+        sourceRoots.add(sourceRoot);
+        add(typeSolver);
+    }
+
+    @Override
+    public TypeSolver getParent() {
+        return parent;
+    }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        if (null != this.parent) {
+            throw new IllegalStateException("This TypeSolver already has a parent.");
+        }
+        if (parent == this) {
+            throw new IllegalStateException("The parent of this TypeSolver cannot be itself.");
+        }
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        SymbolReference<ResolvedReferenceTypeDeclaration> cached = typeCache.getIfPresent(name);
+        if (null != cached) {
+            return cached;
+        }
+        // 解析过程中可能递归解析其它类型，不能在缓存的加载函数里解析
+        SymbolReference<ResolvedReferenceTypeDeclaration> result = solveByRoute(name);
+        typeCache.put(name, result);
+        return result;
+    }
+
+    /**
+     * 源码文件发生变更后调用
+     */
+    public synchronized void invalidate(Collection<File> changedFiles) {
+        for (SourceRoot sourceRoot : sourceRoots) {
+            synchronized (sourceRoot.typeSolver()) {
+                changedFiles.forEach(file -> sourceRoot.caches().parsedFiles().remove(file.toPath().toAbsolutePath()));
+                // 目录和类型的缓存无法按文件定位，直接清空，之后按需重新解析
+                sourceRoot.caches().parsedDirectories().removeAll();
+                sourceRoot.caches().foundTypes().removeAll();
+            }
+            // 新增的包需要登记，已删除的包保留登记也只是多尝试一次
+            changedFiles.stream()
+                    .map(file -> file.toPath().toAbsolutePath())
+                    .filter(path -> path.startsWith(sourceRoot.srcDir()) && Files.exists(path))
+                    .forEach(path -> routeSourceFile(sourceRoot, path));
+        }
+        typeCache.invalidateAll();
+        JavaParserFacade.clearInstances();
+    }
+
+    public CacheStats getTypeCacheStats() {
+        return typeCache.stats();
+    }
+
+    public int getRoutedPackageCount() {
+        return packageToSolvers.size();
+    }
+
+    private SymbolReference<ResolvedReferenceTypeDeclaration> solveByRoute(String name) {
+        Set<TypeSolver> owners = findOwners(name);
+        for (TypeSolver element : elements) {
+            if (routedSolvers.contains(element) && !owners.contains(element)) {
+                continue;
+            }
+            SymbolReference<ResolvedReferenceTypeDeclaration> result = trySolve(element, name);
+            if (result.isSolved()) {
+                return result;
+            }
+        }
+        return SymbolReference.unsolved();
+    }
+
+    /**
+     * 类型名中的任意前缀都可能是包名，例如内部类a.b.C.D所在的包是a.b
+     */
+    private Set<TypeSolver> findOwners(String name) {
+        Set<TypeSolver> owners = Collections.newSetFromMap(new IdentityHashMap<>());
+        String packageName = name;
+        while (!packageName.isEmpty()) {
+            packageName = getPackageName(packageName);
+            owners.addAll(packageToSolvers.getOrDefault(packageName, Collections.emptySet()));
+        }
+        return owners;
+    }
+
+    private static SymbolReference<ResolvedReferenceTypeDeclaration> trySolve(TypeSolver typeSolver, String name) {
+        if (typeSolver instanceof JavaParserTypeSolver) {
+            // JavaParserTypeSolver持有的JavaParser及缓存都不是线程安全的
+            synchronized (typeSolver) {
+                return typeSolver.tryToSolveType(name);
+            }
+        }
+        return typeSolver.tryToSolveType(name);
+    }
+
+    private void routeSourceFile(SourceRoot sourceRoot, Path javaFile) {
+        Path packageDir = sourceRoot.srcDir().relativize(javaFile.getParent());
+        route(packageDir.toString().replace(File.separatorChar, '.'), sourceRoot.typeSolver());
+    }
+
+    private void route(String packageName, TypeSolver typeSolver) {
+        packageToSolvers.computeIfAbsent(packageName, key -> Collections.newSetFromMap(new ConcurrentHashMap<>(4))).add(typeSolver);
+        routedSolvers.add(typeSolver);
+    }
+
+    private static String getPackageName(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot < 0 ? "" : className.substring(0, lastDot);
+    }
+
+    private record SourceRoot(Path srcDir, JavaParserTypeSolver typeSolver, SourceRootCaches caches) {}
+
+    private record SourceRootCaches(
+            Cache<Path, Optional<CompilationUnit>> parsedFiles,
+            Cache<Path, List<CompilationUnit>> parsedDirectories,
+            Cache<String, SymbolReference<ResolvedReferenceTypeDeclaration>> foundTypes
+    ) {}
+
+}
@@ -3,9 +3,10 @@ package io.github.yuanbug.drawer.utils;
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ParseResult;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
 import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.TypeDeclaration;
 import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.nodeTypes.NodeWithName;
@@ -22,6 +23,10 @@ import com.github.javaparser.symbolsolver.javassistmodel.JavassistAnnotationDecl
 import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionAnnotationDeclaration;
 import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionClassDeclaration;
 import com.github.javaparser.symbolsolver.reflectionmodel.ReflectionInterfaceDeclaration;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.github.yuanbug.drawer.domain.ast.ImportTable;
 import io.github.yuanbug.drawer.domain.ast.JavaTypeInfo;
 import javassist.CtClass;
 import lombok.AccessLevel;
@@ -31,9 +36,11 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.lang.reflect.Field;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
@@ -42,6 +49,21 @@ import java.util.stream.Collectors;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class AstUtils {
 
+    /**
+     * 构建AST索引时记录在类型声明节点上的类限定名
+     */
+    public static final DataKey<String> TYPE_NAME_KEY = new DataKey<>() {};
+
+    /**
+     * 类名 -> 字节码，找不到的类也会缓存，避免反复抛出ClassNotFoundException
+     */
+    private static final Cache<String, Optional<Class<?>>> CLASS_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(16384)
+            .recordStats()
+            .build();
+
+    private static final LongAdder FOR_NAME_SAVED_EXCEPTIONS = new LongAdder();
+
     public static CompilationUnit parseAst(File file, JavaParser javaParser) {
         if (!file.exists() || !file.getName().endsWith(".java")) {
             return null;
@@ -58,6 +80,27 @@ public final class AstUtils {
         }
     }
 
+    /**
+     * 解析已读入内存的文件内容，AST的存储位置仍指向原文件
+     */
+    public static CompilationUnit parseAst(File file, byte[] content, JavaParser javaParser) {
+        if (!file.getName().endsWith(".java")) {
+            return null;
+        }
+        try {
+            ParseResult<CompilationUnit> parseResult = javaParser.parse(new ByteArrayInputStream(content));
+            if (!parseResult.isSuccessful()) {
+                parseResult.getProblems().forEach(System.err::println);
+                throw new IllegalStateException("解析AST失败 %s".formatted(file));
+            }
+            return parseResult.getResult()
+                    .map(ast -> ast.setStorage(file.toPath(), javaParser.getParserConfiguration().getCharacterEncoding()))
+                    .orElse(null);
+        } catch (Exception e) {
+            throw new IllegalStateException("解析AST出错 %s".formatted(file), e);
+        }
+    }
+
     @Nonnull
     public static <T extends Node> T findNodeInParent(Node node, @Nonnull Class<T> exceptedNodeType) {
         return Optional.ofNullable(tryfindNodeInParent(node, exceptedNodeType))
@@ -78,8 +121,8 @@ public final class AstUtils {
         return null;
     }
 
-    public static TypeDeclaration<?> findDeclaringType(MethodDeclaration method) {
-        return (TypeDeclaration<?>) findNodeInParent(method, TypeDeclaration.class);
+    public static TypeDeclaration<?> findDeclaringType(BodyDeclaration<?> member) {
+        return (TypeDeclaration<?>) findNodeInParent(member, TypeDeclaration.class);
     }
 
     public static ResolvedType tryResolve(ClassOrInterfaceType type) {
@@ -94,11 +137,35 @@ public final class AstUtils {
         if (StringUtils.isBlank(name)) {
             return null;
         }
+        Optional<Class<?>> cached = CLASS_CACHE.getIfPresent(name);
+        if (null != cached) {
+            if (cached.isEmpty()) {
+                FOR_NAME_SAVED_EXCEPTIONS.increment();
+            }
+            return cached.orElse(null);
+        }
+        Class<?> byteCode;
         try {
-            return Class.forName(name, false, AstUtils.class.getClassLoader());
-        } catch (Exception ignored) {
-            return null;
+            byteCode = Class.forName(name, false, AstUtils.class.getClassLoader());
+        } catch (Exception | LinkageError ignored) {
+            byteCode = null;
         }
+        CLASS_CACHE.put(name, Optional.ofNullable(byteCode));
+        return byteCode;
+    }
+
+    /**
+     * @return {@link #forName} 的缓存命中统计
+     */
+    public static CacheStats getForNameCacheStats() {
+        return CLASS_CACHE.stats();
+    }
+
+    /**
+     * @return {@link #forName} 因命中缓存而免于抛出的异常数
+     */
+    public static long getForNameSavedExceptions() {
+        return FOR_NAME_SAVED_EXCEPTIONS.sum();
     }
 
     public static JavaTypeInfo tryGetTypeByClassLoader(String name) {
@@ -109,29 +176,22 @@ public final class AstUtils {
         return JavaTypeInfo.byByteCode(byteCode);
     }
 
+    /**
+     * 按文件的导入、所在包和java.lang查找类型
+     */
     public static JavaTypeInfo tryParseTypeByImports(String name, CompilationUnit ast) {
-        var imports = ast.getImports();
-        for (var importation : imports) {
-            String importName = importation.getNameAsString();
-            if (importation.isAsterisk()) {
-                JavaTypeInfo typeImported = tryGetTypeByClassLoader(importName + "." + name);
-                if (null != typeImported) {
-                    return typeImported;
-                }
-                continue;
-            }
-            if (name.equals(importName) || importName.endsWith("." + name)) {
-                JavaTypeInfo typeImported = tryGetTypeByClassLoader(importName);
-                if (null != typeImported) {
-                    return typeImported;
-                }
-                return JavaTypeInfo.builder()
-                        .name(name)
-                        .classQualifiedName(importName)
-                        .build();
-            }
+        String qualifiedName = ImportTable.of(ast).resolve(name);
+        if (null == qualifiedName) {
+            return null;
         }
-        return null;
+        JavaTypeInfo byClassLoader = tryGetTypeByClassLoader(qualifiedName);
+        if (null != byClassLoader) {
+            return byClassLoader;
+        }
+        return JavaTypeInfo.builder()
+                .name(name)
+                .classQualifiedName(qualifiedName)
+                .build();
     }
 
     public static String getName(NodeWithSimpleName<?> type, Node parentNode) {
@@ -326,6 +386,9 @@ public final class AstUtils {
     }
 
     public static String getName(TypeDeclaration<?> typeDeclaration) {
+        if (typeDeclaration.containsData(TYPE_NAME_KEY)) {
+            return typeDeclaration.getData(TYPE_NAME_KEY);
+        }
         try {
             ResolvedReferenceTypeDeclaration resolved = typeDeclaration.resolve();
             if (null != resolved) {
@@ -5,9 +5,11 @@ import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * @author yuanbug
@@ -15,6 +17,71 @@ import java.util.function.Predicate;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class ReflectUtils {
 
+    /**
+     * 类 -> 展开后的成员表，每个类只反射一次，不必每次查找都复制成员数组、重新遍历继承链
+     * <p>
+     * 使用ClassValue，缓存随类一起回收，不会阻止从项目jar中加载的类被卸载
+     */
+    private static final ClassValue<ClassMembers> MEMBERS = new ClassValue<>() {
+        @Override
+        protected ClassMembers computeValue(Class<?> type) {
+            return ClassMembers.of(type);
+        }
+    };
+
+    /**
+     * @param declaredMethods 类中声明的方法
+     * @param methodsByName   方法名 -> 类中声明的同名方法
+     * @param declaredFields  类中声明的字段
+     * @param fieldsByName    字段名 -> 类中声明的字段
+     * @param allInterfaces   类及其父类直接或间接实现的所有接口
+     */
+    private record ClassMembers(List<Method> declaredMethods, Map<String, List<Method>> methodsByName,
+                                List<Field> declaredFields, Map<String, Field> fieldsByName,
+                                List<Class<?>> allInterfaces) {
+
+        static ClassMembers of(Class<?> type) {
+            List<Method> methods = List.of(type.getDeclaredMethods());
+            List<Field> fields = List.of(type.getDeclaredFields());
+            return new ClassMembers(
+                    methods,
+                    methods.stream().collect(Collectors.collectingAndThen(Collectors.groupingBy(Method::getName), Collections::unmodifiableMap)),
+                    fields,
+                    fields.stream().collect(Collectors.collectingAndThen(Collectors.toMap(Field::getName, Function.identity(), (one, other) -> one), Collections::unmodifiableMap)),
+                    collectAllInterfaces(type)
+            );
+        }
+
+    }
+
+    /**
+     * 与 {@link Class#getDeclaredMethods()} 相同，但结果是缓存的不可变列表
+     */
+    public static List<Method> getDeclaredMethods(Class<?> type) {
+        return MEMBERS.get(type).declaredMethods();
+    }
+
+    /**
+     * 类中声明的同名方法，不包括父类型中的方法
+     */
+    public static List<Method> getDeclaredMethods(Class<?> type, String name) {
+        return MEMBERS.get(type).methodsByName().getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * 与 {@link Class#getDeclaredFields()} 相同，但结果是缓存的不可变列表
+     */
+    public static List<Field> getDeclaredFields(Class<?> type) {
+        return MEMBERS.get(type).declaredFields();
+    }
+
+    /**
+     * 类中声明的字段，不包括父类型中的字段，找不到时返回null
+     */
+    public static Field getDeclaredField(Class<?> type, String name) {
+        return MEMBERS.get(type).fieldsByName().get(name);
+    }
+
     public static Field getFieldByName(String name, Class<?> type) {
         if (StringUtils.isBlank(name) || null == type) {
             return null;
@@ -22,8 +89,8 @@ public final class ReflectUtils {
         return findInInheritLink(
                 type,
                 false,
-                field -> name.equals(field.getName()),
-                currentType -> Arrays.asList(currentType.getDeclaredFields())
+                Objects::nonNull,
+                currentType -> Optional.ofNullable(getDeclaredField(currentType, name)).map(List::of).orElseGet(Collections::emptyList)
         );
     }
 
@@ -76,9 +143,16 @@ public final class ReflectUtils {
         return null;
     }
 
+    /**
+     * @return 缓存的不可变列表
+     */
     public static List<Class<?>> findAllInterfaces(Class<?> type) {
+        return MEMBERS.get(type).allInterfaces();
+    }
+
+    private static List<Class<?>> collectAllInterfaces(Class<?> type) {
         Set<Class<?>> checked = new HashSet<>(4);
-        Set<Class<?>> result = new HashSet<>(4);
+        Set<Class<?>> result = new LinkedHashSet<>(4);
         Queue<Class<?>> queue = new LinkedList<>();
         queue.add(type);
         while (!queue.isEmpty()) {
@@ -92,7 +166,7 @@ public final class ReflectUtils {
             queue.addAll(interfaces);
             Optional.ofNullable(current.getSuperclass()).ifPresent(queue::add);
         }
-        return new ArrayList<>(result);
+        return List.copyOf(result);
     }
 
 }
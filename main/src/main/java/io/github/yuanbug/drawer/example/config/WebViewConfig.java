@@ -26,6 +26,11 @@ import static io.github.yuanbug.drawer.utils.MiscUtils.getSimpleName;
  */
 public interface WebViewConfig {
 
+    /**
+     * 所有展示的方法都经过这里转换，覆写它即可定制方法的展示
+     * <p>
+     * 传入的方法只带方法ID和方法声明（找不到声明时为null），依赖和覆写为空；调用关系由视图的其它部分表示
+     */
     default MethodView mapMethodInfoToMethodView(MethodInfo methodInfo) {
         return Optional.ofNullable(methodInfo.getDeclaration())
                 .map(this::toMethodView)
@@ -80,6 +85,27 @@ public interface WebViewConfig {
         return GET_ALL_PUBLIC_INSTANCE_METHODS;
     }
 
+    /**
+     * @return 是否在启动后于后台预先解析方法列表中的所有方法
+     */
+    default boolean enableWarmUp() {
+        return false;
+    }
+
+    /**
+     * @return 预热时同时解析的方法数
+     */
+    default int getWarmUpParallelism() {
+        return 2;
+    }
+
+    /**
+     * @return 查看调用关系时解析的时限（毫秒），超时后返回已解析出的部分；查看调用方时按此时限等待反向调用索引构建完成。不大于0时不限时
+     */
+    default long getMethodLinkTimeoutMillis() {
+        return 60_000;
+    }
+
     default Comparator<MethodListItemView> getMethodListSorter() {
         return Comparator.comparing(MethodListItemView::getGroupName)
                 .thenComparing(MethodListItemView::getSubGroupName)
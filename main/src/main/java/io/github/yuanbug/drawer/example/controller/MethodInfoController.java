@@ -1,16 +1,25 @@
 package io.github.yuanbug.drawer.example.controller;
 
+import com.google.common.cache.CacheStats;
 import io.github.yuanbug.drawer.domain.view.graph.method.MethodLinkView;
 import io.github.yuanbug.drawer.domain.view.graph.method.MethodListItemView;
+import io.github.yuanbug.drawer.domain.view.warmup.WarmUpProgressView;
+import io.github.yuanbug.drawer.example.config.WebViewConfig;
 import io.github.yuanbug.drawer.example.service.ViewService;
+import io.github.yuanbug.drawer.example.service.WarmUpService;
+import io.github.yuanbug.drawer.parser.MethodParser;
 import io.github.yuanbug.drawer.utils.JacksonUtils;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * @author yuanbug
@@ -23,24 +32,88 @@ public class MethodInfoController {
     @Resource
     private ViewService viewService;
 
+    @Resource
+    private WarmUpService warmUpService;
+
+    @Resource
+    private MethodParser methodParser;
+
+    @Resource
+    private WebViewConfig webViewConfig;
+
     @GetMapping("/list")
     public List<MethodListItemView> getMethodList() {
         return viewService.getMethodList();
     }
 
+    /**
+     * 不传maxDepth和maxNodes时返回完整的调用关系；不传timeoutMillis时按配置的时限解析，超时返回部分结果
+     */
     @GetMapping("/method-link")
-    public MethodLinkView getMethodLink(String methodId) {
+    public MethodLinkView getMethodLink(String methodId, Integer maxDepth, Integer maxNodes, Long timeoutMillis) {
+        warmUpService.prioritize(methodId);
         try {
-            return viewService.getMethodLink(methodId);
+            return viewService.getMethodLink(
+                    methodId,
+                    Optional.ofNullable(maxDepth).orElse(Integer.MAX_VALUE),
+                    Optional.ofNullable(maxNodes).orElse(Integer.MAX_VALUE),
+                    Optional.ofNullable(timeoutMillis).orElseGet(webViewConfig::getMethodLinkTimeoutMillis)
+            );
         } catch (Throwable e) {
             log.error("{} 解析异常", methodId, e);
             throw new IllegalStateException("无法解析方法" + methodId);
         }
     }
 
+    /**
+     * 展开可展开的方法，返回以它为入口的调用关系
+     */
+    @GetMapping("/method-link/expand")
+    public MethodLinkView expandMethodLink(String methodId,
+                                           @RequestParam(defaultValue = "3") int maxDepth,
+                                           @RequestParam(defaultValue = "200") int maxNodes) {
+        return getMethodLink(methodId, maxDepth, maxNodes, null);
+    }
+
+    /**
+     * 调用了该方法的上游方法，默认向上查找3层；不传timeoutMillis时按配置的时限等待反向调用索引构建完成
+     */
+    @GetMapping("/callers")
+    public MethodLinkView getCallerLink(String methodId, @RequestParam(defaultValue = "3") int maxDepth, Long timeoutMillis) {
+        try {
+            return viewService.getCallerLink(
+                    methodId,
+                    Math.max(1, maxDepth),
+                    Optional.ofNullable(timeoutMillis).orElseGet(webViewConfig::getMethodLinkTimeoutMillis)
+            );
+        } catch (Throwable e) {
+            log.error("{} 查找调用方异常", methodId, e);
+            throw new IllegalStateException("无法查找方法的调用方" + methodId);
+        }
+    }
+
     @GetMapping("/mermaid")
     public String getMermaid(String methodId) {
         return JacksonUtils.toJsonString(viewService.getMermaid(methodId));
     }
 
+    @GetMapping("/warm-up")
+    public WarmUpProgressView getWarmUpProgress() {
+        return warmUpService.getProgress();
+    }
+
+    /**
+     * 方法解析结果缓存的统计
+     */
+    @GetMapping("/cache-stats")
+    public Map<String, Number> getCacheStats() {
+        CacheStats stats = methodParser.getMethodCacheStats();
+        Map<String, Number> result = new LinkedHashMap<>();
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
 }
@@ -1,7 +1,9 @@
 package io.github.yuanbug.drawer.example.service;
 
 import io.github.yuanbug.drawer.domain.ast.AstIndex;
-import io.github.yuanbug.drawer.domain.info.MethodCalling;
+import io.github.yuanbug.drawer.domain.info.CompactMethodGraph;
+import io.github.yuanbug.drawer.domain.info.MethodCallingType;
+import io.github.yuanbug.drawer.domain.info.MethodGraphParsingResult;
 import io.github.yuanbug.drawer.domain.info.MethodId;
 import io.github.yuanbug.drawer.domain.info.MethodInfo;
 import io.github.yuanbug.drawer.domain.view.graph.method.MethodCallingView;
@@ -11,16 +13,14 @@ import io.github.yuanbug.drawer.domain.view.graph.method.MethodView;
 import io.github.yuanbug.drawer.example.config.WebViewConfig;
 import io.github.yuanbug.drawer.example.utils.MermaidFlowChartGenerator;
 import io.github.yuanbug.drawer.example.utils.MermaidFlowChartLineType;
+import io.github.yuanbug.drawer.parser.CallerIndex;
 import io.github.yuanbug.drawer.parser.MethodParser;
 import io.github.yuanbug.drawer.utils.StopwatchTimer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.function.BiConsumer;
-import java.util.function.Supplier;
 
 /**
  * @author yuanbug
@@ -30,13 +30,15 @@ import java.util.function.Supplier;
 public class ViewService {
 
     private final MethodParser methodParser;
+    private final CallerIndex callerIndex;
     private final WebViewConfig webViewConfig;
 
     @Getter
     private final List<MethodListItemView> methodList;
 
-    public ViewService(MethodParser methodParser, WebViewConfig webViewConfig, AstIndex astIndex) {
+    public ViewService(MethodParser methodParser, CallerIndex callerIndex, WebViewConfig webViewConfig, AstIndex astIndex) {
         this.methodParser = methodParser;
+        this.callerIndex = callerIndex;
         this.webViewConfig = webViewConfig;
         log.info("开始构建方法列表");
         StopwatchTimer timer = StopwatchTimer.start();
@@ -49,87 +51,246 @@ public class ViewService {
     }
 
     public MethodLinkView getMethodLink(String methodId) {
-        MethodInfo methodInfo = methodParser.parseMethod(methodId);
+        return getMethodLink(methodId, Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * 只展示到指定的调用深度和方法数，边界上还有调用关系的方法标记为可展开，以它为入口再次调用即可展开
+     */
+    public MethodLinkView getMethodLink(String methodId, int maxDepth, int maxNodes) {
+        return getMethodLink(methodId, maxDepth, maxNodes, 0);
+    }
+
+    /**
+     * 解析超时后返回已解析出的部分，并标记为truncated，不完整的结果不会缓存
+     * <p>
+     * 完整的调用图由 {@link MethodParser} 以紧凑的形式缓存，这里直接在其上切片，方法声明只在生成视图时按需查找
+     *
+     * @param timeoutMillis 不大于0时不限时
+     */
+    public MethodLinkView getMethodLink(String methodId, int maxDepth, int maxNodes, long timeoutMillis) {
+        MethodGraphParsingResult result = methodParser.parseMethodGraph(methodId, maxDepth, maxNodes, timeoutMillis);
+        MethodLinkView methodLink = buildMethodLink(methodId, result.getGraph(), Math.max(1, maxDepth), Math.max(1, maxNodes));
+        methodLink.setTruncated(result.isTruncated());
+        return methodLink;
+    }
+
+    /**
+     * 向上查找调用了该方法的方法，直到指定的深度；调用关系仍从调用方指向被调用方，深度之外还有调用方的方法标记为可展开
+     */
+    public MethodLinkView getCallerLink(String methodId, int maxDepth) {
+        return getCallerLink(methodId, maxDepth, 0);
+    }
+
+    /**
+     * 反向调用索引在启动后于后台构建，到时限仍未构建完成时只返回该方法本身，并标记为truncated
+     *
+     * @param timeoutMillis 等待索引构建的时限，不大于0时不限时
+     */
+    public MethodLinkView getCallerLink(String methodId, int maxDepth, long timeoutMillis) {
+        if (!callerIndex.awaitBuilt(timeoutMillis)) {
+            MethodView view = toMethodView(MethodId.parse(methodId));
+            view.setExpandable(true);
+            MethodLinkView methodLink = MethodLinkView.builder()
+                    .rootMethodId(methodId)
+                    .methods(Map.of(methodId, view))
+                    .callings(Collections.emptyList())
+                    .recursions(Collections.emptyList())
+                    .overrides(Collections.emptyMap())
+                    .build();
+            methodLink.setTruncated(true);
+            return methodLink;
+        }
+        Map<String, MethodView> methods = new HashMap<>();
+        List<MethodCallingView> callings = new ArrayList<>();
+        Map<String, Integer> depths = new HashMap<>();
+        Queue<String> queue = new ArrayDeque<>();
+        depths.put(methodId, 0);
+        queue.add(methodId);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            int depth = depths.get(current);
+            Map<String, MethodCallingType> callers = callerIndex.getCallers(current);
+            MethodView view = toMethodView(MethodId.parse(current));
+            methods.put(current, view);
+            if (depth >= maxDepth) {
+                view.setExpandable(!callers.isEmpty());
+                continue;
+            }
+            callers.forEach((caller, callingType) -> {
+                callings.add(MethodCallingView.builder()
+                        .from(caller)
+                        .to(current)
+                        .type(callingType)
+                        .build());
+                if (null == depths.putIfAbsent(caller, depth + 1)) {
+                    queue.add(caller);
+                }
+            });
+        }
         return MethodLinkView.builder()
                 .rootMethodId(methodId)
-                .methods(flatMethods(methodInfo))
-                .callings(flatCallings(methodInfo))
-                .recursions(flatRecursions(methodInfo))
-                .overrides(flatOverrides(methodInfo))
+                .methods(methods)
+                .callings(callings)
+                .recursions(Collections.emptyList())
+                .overrides(Collections.emptyMap())
                 .build();
     }
 
-    private <T, R> R flatMethodInfo(MethodInfo methodInfo, Supplier<R> defaultResultSupplier, BiConsumer<MethodInfo, R> accumulator) {
-        R result = defaultResultSupplier.get();
-        Queue<MethodInfo> queue = new LinkedList<>();
-        Set<String> finished = new HashSet<>();
-        queue.add(methodInfo);
-        while (!queue.isEmpty()) {
-            MethodInfo current = queue.poll();
-            String id = current.getId().toString();
-            if (finished.contains(id)) {
+    private MethodLinkView buildMethodLink(String methodId, CompactMethodGraph graph, int maxDepth, int maxNodes) {
+        MethodGraphSlice slice = sliceMethodGraph(graph, maxDepth, maxNodes);
+        return MethodLinkView.builder()
+                .rootMethodId(methodId)
+                .methods(flatMethods(slice))
+                .callings(flatCallings(slice))
+                .recursions(flatRecursions(slice))
+                .overrides(flatOverrides(slice))
+                .build();
+    }
+
+    /**
+     * 按广度优先选出要展示的方法
+     *
+     * @param expanded 调用关系需要展示的方法
+     * @param frontier 处于边界的方法，其调用关系不展示
+     */
+    private record MethodGraphSlice(CompactMethodGraph graph, int[] expanded, int[] frontier) {}
+
+    private static MethodGraphSlice sliceMethodGraph(CompactMethodGraph graph, int maxDepth, int maxNodes) {
+        int[] depths = new int[graph.size()];
+        Arrays.fill(depths, -1);
+        // 每个方法只在第一次遇到时入队，队列长度不会超过方法数
+        int[] queue = new int[graph.size()];
+        int head = 0;
+        int tail = 0;
+        int[] expanded = new int[graph.size()];
+        int[] frontier = new int[graph.size()];
+        int expandedCount = 0;
+        int frontierCount = 0;
+        queue[tail++] = CompactMethodGraph.ROOT;
+        depths[CompactMethodGraph.ROOT] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            int depth = depths[current];
+            int[] children = getChildren(graph, current);
+            int newChildren = 0;
+            for (int child : children) {
+                if (depths[child] < 0) {
+                    newChildren++;
+                }
+            }
+            // 入口方法总要展开，其它方法展开后超出数量限制时作为边界
+            if (depth >= maxDepth || (depth > 0 && (long) tail + newChildren > maxNodes)) {
+                frontier[frontierCount++] = current;
                 continue;
             }
-            accumulator.accept(current, result);
-            queue.addAll(current.getOverrides());
-            queue.addAll(current.getDependencies().stream().map(MethodCalling::getCallee).filter(Objects::nonNull).toList());
-            finished.add(id);
+            expanded[expandedCount++] = current;
+            for (int child : children) {
+                if (depths[child] < 0) {
+                    depths[child] = depth + 1;
+                    queue[tail++] = child;
+                }
+            }
+        }
+        return new MethodGraphSlice(graph, Arrays.copyOf(expanded, expandedCount), Arrays.copyOf(frontier, frontierCount));
+    }
+
+    /**
+     * 覆写的方法和非递归调用的方法
+     */
+    private static int[] getChildren(CompactMethodGraph graph, int method) {
+        int[] children = new int[graph.getOverrideEnd(method) - graph.getOverrideStart(method) + graph.getCallingEnd(method) - graph.getCallingStart(method)];
+        int count = 0;
+        for (int i = graph.getOverrideStart(method); i < graph.getOverrideEnd(method); i++) {
+            children[count++] = graph.getOverrideTarget(i);
+        }
+        for (int i = graph.getCallingStart(method); i < graph.getCallingEnd(method); i++) {
+            if (!graph.isRecursive(i)) {
+                children[count++] = graph.getCallingTarget(i);
+            }
+        }
+        return count == children.length ? children : Arrays.copyOf(children, count);
+    }
+
+    private MethodView toMethodView(CompactMethodGraph graph, int method) {
+        MethodId methodId = MethodId.parse(graph.getMethodId(method));
+        // 方法声明按需从AST索引中查找，解析时就没有找到的不必再找
+        return toMethodView(methodId, graph.hasDeclaration(method));
+    }
+
+    private MethodView toMethodView(MethodId methodId) {
+        return toMethodView(methodId, true);
+    }
+
+    /**
+     * 经 {@link WebViewConfig#mapMethodInfoToMethodView(MethodInfo)} 生成视图，传入的 {@link MethodInfo} 只带方法ID和方法声明
+     */
+    private MethodView toMethodView(MethodId methodId, boolean findDeclaration) {
+        return webViewConfig.mapMethodInfoToMethodView(MethodInfo.builder()
+                .id(methodId)
+                .declaration(findDeclaration ? methodParser.findMethod(methodId).orElse(null) : null)
+                .dependencies(Collections.emptyList())
+                .overrides(Collections.emptyList())
+                .build());
+    }
+
+    private Map<String, MethodView> flatMethods(MethodGraphSlice slice) {
+        CompactMethodGraph graph = slice.graph();
+        Map<String, MethodView> result = new HashMap<>();
+        for (int method : slice.expanded()) {
+            MethodView view = toMethodView(graph, method);
+            view.setExpandable(graph.isExpandable(method));
+            result.put(graph.getMethodId(method), view);
+        }
+        for (int method : slice.frontier()) {
+            MethodView view = toMethodView(graph, method);
+            view.setExpandable(graph.isExpandable(method)
+                    || graph.getCallingEnd(method) > graph.getCallingStart(method)
+                    || graph.getOverrideEnd(method) > graph.getOverrideStart(method));
+            result.put(graph.getMethodId(method), view);
         }
         return result;
     }
 
-    private Map<String, MethodView> flatMethods(MethodInfo methodInfo) {
-        return flatMethodInfo(
-                methodInfo,
-                HashMap::new,
-                (method, result) -> result.put(method.getId().toString(), webViewConfig.mapMethodInfoToMethodView(method))
-        );
-    }
-
-    private List<MethodCallingView> flatCallings(MethodInfo methodInfo) {
-        return flatMethodInfo(
-                methodInfo,
-                ArrayList::new,
-                (method, result) -> result.addAll(method.getDependencies().stream()
-                        .filter(calling -> null != calling.getCallee())
-                        .map(calling -> MethodCallingView.builder()
-                                .from(method.getId().toString())
-                                .to(calling.getCallee().getId().toString())
-                                .type(calling.getCallingType())
-                                .build())
-                        .toList())
-        );
-    }
-
-    private List<MethodCallingView> flatRecursions(MethodInfo methodInfo) {
-        return flatMethodInfo(
-                methodInfo,
-                ArrayList::new,
-                (method, result) -> method.getDependencies().stream()
-                        .filter(calling -> StringUtils.isNotBlank(calling.getRecursiveAt()))
-                        .forEach(calling -> result.add(MethodCallingView.builder()
-                                .from(method.getId().toString())
-                                .to(calling.getRecursiveAt())
-                                .type(calling.getCallingType())
-                                .build()))
-        );
-    }
-
-    private Map<String, List<String>> flatOverrides(MethodInfo methodInfo) {
-        return flatMethodInfo(
-                methodInfo,
-                HashMap::new,
-                (method, result) -> {
-                    List<String> overrides = method.getOverrides().stream()
-                            .map(MethodInfo::getId)
-                            .map(MethodId::toString)
-                            .toList();
-                    if (overrides.isEmpty()) {
-                        return;
-                    }
-                    result.computeIfAbsent(method.getId().toString(), k -> new ArrayList<>()).addAll(overrides);
+    private List<MethodCallingView> flatCallings(MethodGraphSlice slice) {
+        return flatCallings(slice, false);
+    }
+
+    private List<MethodCallingView> flatRecursions(MethodGraphSlice slice) {
+        return flatCallings(slice, true);
+    }
+
+    private static List<MethodCallingView> flatCallings(MethodGraphSlice slice, boolean recursive) {
+        CompactMethodGraph graph = slice.graph();
+        List<MethodCallingView> result = new ArrayList<>();
+        for (int method : slice.expanded()) {
+            for (int i = graph.getCallingStart(method); i < graph.getCallingEnd(method); i++) {
+                if (graph.isRecursive(i) != recursive) {
+                    continue;
                 }
-        );
+                result.add(MethodCallingView.builder()
+                        .from(graph.getMethodId(method))
+                        .to(graph.getMethodId(graph.getCallingTarget(i)))
+                        .type(graph.getCallingType(i))
+                        .build());
+            }
+        }
+        return result;
+    }
+
+    private Map<String, List<String>> flatOverrides(MethodGraphSlice slice) {
+        CompactMethodGraph graph = slice.graph();
+        Map<String, List<String>> result = new HashMap<>();
+        for (int method : slice.expanded()) {
+            if (graph.getOverrideEnd(method) == graph.getOverrideStart(method)) {
+                continue;
+            }
+            List<String> overrides = result.computeIfAbsent(graph.getMethodId(method), k -> new ArrayList<>());
+            for (int i = graph.getOverrideStart(method); i < graph.getOverrideEnd(method); i++) {
+                overrides.add(graph.getMethodId(graph.getOverrideTarget(i)));
+            }
+        }
+        return result;
     }
 
     /**
@@ -0,0 +1,170 @@
+package io.github.yuanbug.drawer.example.service;
+
+import io.github.yuanbug.drawer.domain.view.graph.method.MethodListItemView;
+import io.github.yuanbug.drawer.domain.view.warmup.WarmUpProgressView;
+import io.github.yuanbug.drawer.example.config.WebViewConfig;
+import io.github.yuanbug.drawer.parser.MethodParser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 启动后在后台按方法列表逐个解析方法，预热完的方法之后的查看请求可以直接命中 {@link MethodParser} 的缓存
+ * <p>
+ * 用户查看的方法会插队到队首，同一个类中的其它方法紧随其后；
+ * 查看请求本身不经过队列，由 {@link MethodParser} 解析，正在预热的方法会等待预热线程的结果而不会重复解析
+ *
+ * @author yuanbug
+ */
+@Slf4j
+@Service
+public class WarmUpService {
+
+    private static final int DEFAULT_PRIORITY = 0;
+    private static final int SIBLING_PRIORITY = 1;
+    private static final int REQUESTED_PRIORITY = 2;
+
+    private final MethodParser methodParser;
+    private final WebViewConfig webViewConfig;
+    private final Map<String, MethodListItemView> methodListItems;
+
+    private final PriorityBlockingQueue<WarmUpTask> queue = new PriorityBlockingQueue<>(
+            256,
+            Comparator.comparingInt(WarmUpTask::priority).reversed().thenComparingLong(WarmUpTask::sequence)
+    );
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * 方法id -> 队列中该方法的最高优先级，已在队列中且优先级不低于本次的不再入队
+     */
+    private final Map<String, Integer> queuedPriorities = new ConcurrentHashMap<>(256);
+    private final Set<String> finished = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    private volatile ExecutorService workers;
+    private volatile long startMillis;
+    private volatile long endMillis;
+
+    public WarmUpService(MethodParser methodParser, WebViewConfig webViewConfig, ViewService viewService) {
+        this.methodParser = methodParser;
+        this.webViewConfig = webViewConfig;
+        this.methodListItems = viewService.getMethodList().stream()
+                .collect(Collectors.toMap(MethodListItemView::getMethodId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    @PostConstruct
+    protected void start() {
+        if (!webViewConfig.enableWarmUp() || methodListItems.isEmpty()) {
+            return;
+        }
+        methodListItems.keySet().forEach(methodId -> enqueue(methodId, DEFAULT_PRIORITY));
+        int parallelism = Math.max(1, webViewConfig.getWarmUpParallelism());
+        AtomicInteger threadIndex = new AtomicInteger();
+        startMillis = System.currentTimeMillis();
+        workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "method-warm-up-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < parallelism; i++) {
+            workers.execute(this::work);
+        }
+        log.info("开始预热{}个方法，并行度{}", methodListItems.size(), parallelism);
+    }
+
+    @PreDestroy
+    protected void stop() {
+        if (null != workers) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * 让用户正在查看的方法及同一个类中的方法插队
+     */
+    public void prioritize(String methodId) {
+        if (null == workers || isDone(methodId)) {
+            return;
+        }
+        enqueue(methodId, REQUESTED_PRIORITY);
+        MethodListItemView item = methodListItems.get(methodId);
+        if (null == item) {
+            return;
+        }
+        methodListItems.values().stream()
+                .filter(other -> Objects.equals(other.getGroupName(), item.getGroupName()) && Objects.equals(other.getSubGroupName(), item.getSubGroupName()))
+                .map(MethodListItemView::getMethodId)
+                .filter(other -> !isDone(other) && !other.equals(methodId))
+                .forEach(other -> enqueue(other, SIBLING_PRIORITY));
+    }
+
+    public WarmUpProgressView getProgress() {
+        boolean enabled = null != workers;
+        long end = endMillis > 0 ? endMillis : System.currentTimeMillis();
+        return WarmUpProgressView.builder()
+                .enabled(enabled)
+                .total(methodListItems.size())
+                .finished(finished.size())
+                .failed(failed.size())
+                .running(running.size())
+                .elapsedMillis(enabled ? end - startMillis : 0)
+                .build();
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WarmUpTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            String methodId = task.methodId();
+            // 插队提高优先级后，先前入队的低优先级任务已经作废
+            if (!queuedPriorities.remove(methodId, task.priority())) {
+                continue;
+            }
+            if (isDone(methodId) || !running.add(methodId)) {
+                continue;
+            }
+            try {
+                methodParser.parseMethodGraph(methodId);
+                finished.add(methodId);
+            } catch (Exception e) {
+                failed.add(methodId);
+                log.warn("预热方法出错 {}", methodId, e);
+            } finally {
+                running.remove(methodId);
+            }
+            if (finished.size() + failed.size() >= methodListItems.size() && 0 == endMillis) {
+                endMillis = System.currentTimeMillis();
+                log.info("方法预热完成，成功{}个，失败{}个，耗时{}ms", finished.size(), failed.size(), endMillis - startMillis);
+            }
+        }
+    }
+
+    private boolean isDone(String methodId) {
+        return finished.contains(methodId) || failed.contains(methodId);
+    }
+
+    private void enqueue(String methodId, int priority) {
+        queuedPriorities.compute(methodId, (id, queued) -> {
+            if (null != queued && queued >= priority) {
+                return queued;
+            }
+            queue.add(new WarmUpTask(id, priority, sequence.incrementAndGet()));
+            return priority;
+        });
+    }
+
+    private record WarmUpTask(String methodId, int priority, long sequence) {}
+
+}
@@ -11,6 +11,7 @@ import io.github.yuanbug.drawer.domain.ast.AstIndex;
 import io.github.yuanbug.drawer.parser.MethodParser;
 import io.github.yuanbug.drawer.parser.ParserConstants;
 
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.BiFunction;
@@ -40,6 +41,17 @@ public abstract class BaseTest extends AutoConfiguration {
         this.methodParser = new MethodParser(this.astIndex, this.config);
     }
 
+    /**
+     * 按给定配置构建独立的AST索引和方法解析器，用于临时模块等不使用默认配置的测试
+     */
+    protected ParserContext buildParser(AstParsingConfig parsingConfig) {
+        TypeSolver solver = javaParserTypeSolver(parsingConfig);
+        AstIndex index = astIndexContext(parsingConfig, javaParser(solver), solver);
+        return new ParserContext(index, new MethodParser(index, parsingConfig));
+    }
+
+    protected record ParserContext(AstIndex astIndex, MethodParser methodParser) {}
+
     @Override
     public AstParsingConfig defaultProjectDrawerConfig() {
         return new TestAstParsingConfig();
@@ -73,4 +85,30 @@ public abstract class BaseTest extends AutoConfiguration {
 
     }
 
+    /**
+     * 只包含一个临时源码目录的模块，用于需要修改源码的测试
+     */
+    protected static class TempModuleConfig extends TestAstParsingConfig {
+
+        private final CodeModule module;
+
+        public TempModuleConfig(Path srcDir) {
+            this.module = CodeModule.builder()
+                    .name("temp")
+                    .srcMainJavaPath(srcDir)
+                    .compileDependencyJars(Collections.emptyList())
+                    .build();
+        }
+
+        public CodeModule getModule() {
+            return module;
+        }
+
+        @Override
+        public List<CodeModule> getModules() {
+            return List.of(module);
+        }
+
+    }
+
 }
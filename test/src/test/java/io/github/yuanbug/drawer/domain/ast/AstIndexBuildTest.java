@@ -0,0 +1,103 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.parser.ParserConstants;
+import io.github.yuanbug.drawer.utils.AstUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author yuanbug
+ */
+class AstIndexBuildTest extends BaseTest {
+
+    @Test
+    void whenBuildInParallelThenSameAsSerial() {
+        AstIndex serial = astIndexContext(new FixedParallelismConfig(1), javaParser, typeSolver);
+        AstIndex parallel = astIndexContext(new FixedParallelismConfig(4), javaParser, typeSolver);
+
+        assertFalse(serial.getClassNameToFileInfo().isEmpty());
+        assertEquals(toFileNames(serial), toFileNames(parallel));
+        assertEquals(serial.getFileToFileInfo().keySet(), parallel.getFileToFileInfo().keySet());
+    }
+
+    @Test
+    void whenFindTypeByNameThenDeclarationMatches() {
+        for (String typeName : astIndex.getClassNameToFileInfo().keySet()) {
+            TypeDeclaration<?> typeDeclaration = astIndex.findTypeInIndex(typeName).orElseThrow();
+            assertEquals(typeName, AstUtils.getName(typeDeclaration));
+            assertSame(astIndex.getInfoByClassName(typeName).getAst(), AstUtils.getAst(typeDeclaration));
+        }
+    }
+
+    @Test
+    void whenFindDirectSubTypesThenSameAsScanning() {
+        astIndex.getAllTypeDeclaration(ClassOrInterfaceDeclaration.class).forEach(type -> {
+            Set<String> expected = astIndex.getAllTypeDeclaration(ClassOrInterfaceDeclaration.class)
+                    .filter(checkingType -> ParserConstants.isDirectlySuperType(checkingType, type))
+                    .map(AstUtils::getName)
+                    .collect(Collectors.toSet());
+            Set<String> actual = ParserConstants.ALL_DIRECTLY_SUB_TYPE_PARSER.apply(type, astIndex).stream()
+                    .map(AstUtils::getName)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, actual, AstUtils.getName(type));
+        });
+    }
+
+    @Test
+    void whenGetParentTypesAgainThenUseCache() {
+        astIndex.getAllTypeDeclaration().forEach(type -> {
+            long hitCount = astIndex.getParentTypesCacheStats().hitCount();
+            assertSame(astIndex.getAllParentTypes(type), astIndex.getAllParentTypes(type));
+            assertTrue(astIndex.getParentTypesCacheStats().hitCount() > hitCount);
+        });
+    }
+
+    @Test
+    void whenSolveMissingTypeAgainThenUseCache() {
+        String missingTypeName = "io.github.yuanbug.drawer.test.NotExists";
+        assertTrue(astIndex.trySolveReferenceTypeDeclaration(missingTypeName).isEmpty());
+        assertNull(AstUtils.forName(missingTypeName));
+        long solveTypeSavedExceptions = astIndex.getSolveTypeSavedExceptions();
+        long forNameSavedExceptions = AstUtils.getForNameSavedExceptions();
+
+        assertTrue(astIndex.trySolveReferenceTypeDeclaration(missingTypeName).isEmpty());
+        assertNull(AstUtils.forName(missingTypeName));
+        assertEquals(solveTypeSavedExceptions + 1, astIndex.getSolveTypeSavedExceptions());
+        assertEquals(forNameSavedExceptions + 1, AstUtils.getForNameSavedExceptions());
+    }
+
+    private static Map<String, String> toFileNames(AstIndex astIndex) {
+        return astIndex.getClassNameToFileInfo().entrySet().stream().collect(Collectors.toMap(
+                Map.Entry::getKey,
+                kv -> kv.getValue().getFile().getAbsolutePath()
+        ));
+    }
+
+    private static class FixedParallelismConfig extends TestAstParsingConfig {
+
+        private final int parallelism;
+
+        private FixedParallelismConfig(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        public int getIndexingParallelism() {
+            return parallelism;
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import io.github.yuanbug.drawer.BaseTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class AstIndexCacheTest extends BaseTest {
+
+    @Test
+    void whenRestartThenLoadUnchangedFilesFromCache(@TempDir Path srcDir, @TempDir Path cacheDir) throws IOException {
+        Path packageDir = Files.createDirectories(srcDir.resolve("demo"));
+        File fooFile = Files.writeString(packageDir.resolve("Foo.java"), "package demo; public class Foo { void foo() {} }").toFile();
+        Files.writeString(packageDir.resolve("Bar.java"), "package demo; public class Bar {}");
+        TempModuleConfig cachedConfig = new TempModuleConfig(srcDir) {
+            @Override
+            public Path getAstCachePath() {
+                return cacheDir;
+            }
+        };
+
+        AstIndexCache firstCache = astIndexContext(cachedConfig, javaParser, typeSolver).getAstIndexCache();
+        assertEquals(0, firstCache.getHitCount());
+        assertEquals(2, firstCache.getMissCount());
+
+        AstIndex restarted = astIndexContext(cachedConfig, javaParser, typeSolver);
+        assertEquals(2, restarted.getAstIndexCache().getHitCount());
+        assertEquals(0, restarted.getAstIndexCache().getMissCount());
+        assertEquals(1, restarted.getTypeDeclarationByClassName("demo.Foo").getMethodsByName("foo").size());
+
+        // 修改后的文件重新解析，未修改的文件仍然命中
+        Files.writeString(fooFile.toPath(), "package demo; public class Foo { void foo() {} void bar() {} }");
+        AstIndex edited = astIndexContext(cachedConfig, javaParser, typeSolver);
+        assertEquals(1, edited.getAstIndexCache().getHitCount());
+        assertEquals(1, edited.getAstIndexCache().getMissCount());
+        assertEquals(1, edited.getTypeDeclarationByClassName("demo.Foo").getMethodsByName("bar").size());
+    }
+
+    @Test
+    void whenFileChangedAfterParseThenCacheNotUsed(@TempDir Path srcDir, @TempDir Path cacheDir) throws IOException {
+        File fooFile = Files.writeString(srcDir.resolve("Foo.java"), "public class Foo {}").toFile();
+        AstIndexCache cache = new AstIndexCache(cacheDir, javaParser.getParserConfiguration());
+        AstIndexCache.FileSnapshot snapshot = AstIndexCache.snapshot(fooFile);
+        // 解析之后、写入缓存之前文件被修改
+        Files.writeString(fooFile.toPath(), "public class Foo { void changed() {} }");
+        cache.save(fooFile, snapshot, javaParser.parse(new String(snapshot.content())).getResult().orElseThrow(), List.of("Foo"));
+        cache.flush(List.of(fooFile));
+
+        assertTrue(new AstIndexCache(cacheDir, javaParser.getParserConfiguration()).load(fooFile).isEmpty());
+    }
+
+    @Test
+    void whenFileRevertedAfterReindexThenOriginalAstLoadedAfterRestart(@TempDir Path srcDir, @TempDir Path cacheDir) throws IOException {
+        File fooFile = Files.writeString(srcDir.resolve("Foo.java"), "public class Foo { void foo() {} }").toFile();
+        TempModuleConfig cachedConfig = new TempModuleConfig(srcDir) {
+            @Override
+            public Path getAstCachePath() {
+                return cacheDir;
+            }
+        };
+        AstIndex index = astIndexContext(cachedConfig, javaParser, typeSolver);
+
+        // 监听线程重新索引时只写入AST，不写入清单
+        Files.writeString(fooFile.toPath(), "public class Foo { void bar() {} }");
+        index.reindexFile(fooFile, cachedConfig.getModule());
+        assertEquals(1, index.getTypeDeclarationByClassName("Foo").getMethodsByName("bar").size());
+
+        // 改回原内容后，磁盘上的旧清单记录仍然有效，对应的AST也必须是原内容的
+        Files.writeString(fooFile.toPath(), "public class Foo { void foo() {} }");
+        assertTrue(fooFile.setLastModified(fooFile.lastModified() + 1000));
+        AstIndex restarted = astIndexContext(cachedConfig, javaParser, typeSolver);
+        assertEquals(1, restarted.getAstIndexCache().getHitCount());
+        assertEquals(1, restarted.getTypeDeclarationByClassName("Foo").getMethodsByName("foo").size());
+        assertTrue(restarted.getTypeDeclarationByClassName("Foo").getMethodsByName("bar").isEmpty());
+        // 写入清单后不再引用的AST文件被清理
+        try (Stream<Path> astFiles = Files.list(cacheDir.resolve("ast"))) {
+            assertEquals(1, astFiles.count());
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import io.github.yuanbug.drawer.BaseTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class AstIndexReindexTest extends BaseTest {
+
+    @Test
+    void whenFileChangedThenIndexUpdated(@TempDir Path srcDir) throws IOException {
+        Path packageDir = Files.createDirectories(srcDir.resolve("demo"));
+        File javaFile = Files.writeString(packageDir.resolve("Foo.java"), "package demo; public class Foo {}").toFile();
+        TempModuleConfig tempConfig = new TempModuleConfig(srcDir);
+        AstIndex index = astIndexContext(tempConfig, javaParser, typeSolver);
+        List<AstIndexChange> changes = new ArrayList<>();
+        index.addChangeListener(changes::add);
+        assertNotNull(index.getInfoByClassName("demo.Foo"));
+        assertTrue(index.getDirectSubTypeNames("demo.Foo").isEmpty());
+
+        Files.writeString(javaFile.toPath(), "package demo; public class Foo {} class Bar extends Foo {}");
+        index.reindexFile(javaFile, tempConfig.getModule());
+        assertNotNull(index.getInfoByClassName("demo.Bar"));
+        assertEquals(Set.of("demo.Bar"), index.getDirectSubTypeNames("demo.Foo"));
+        assertSame(index.getInfoByClassName("demo.Foo"), index.getInfoByClassName("demo.Bar"));
+        assertEquals(Set.of("demo.Foo", "demo.Bar"), changes.get(0).getTypeNames());
+
+        Files.writeString(javaFile.toPath(), "package demo; public class Foo {}");
+        index.reindexFile(javaFile, tempConfig.getModule());
+        assertNull(index.getInfoByClassName("demo.Bar"));
+        assertTrue(index.getDirectSubTypeNames("demo.Foo").isEmpty());
+
+        Files.delete(javaFile.toPath());
+        index.removeFileFromIndex(javaFile);
+        assertNull(index.getInfoByClassName("demo.Foo"));
+        assertNull(index.getInfoByFile(javaFile));
+        assertEquals(3, changes.size());
+    }
+
+}
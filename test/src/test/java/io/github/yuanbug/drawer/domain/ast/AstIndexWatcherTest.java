@@ -0,0 +1,64 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.domain.info.MethodInfo;
+import io.github.yuanbug.drawer.parser.MethodParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class AstIndexWatcherTest extends BaseTest {
+
+    private static final long WAIT_MILLIS = 10_000;
+
+    @Test
+    void whenFileWrittenUnderWatchedRootThenIndexAndMethodCacheUpdated(@TempDir Path srcDir) throws Exception {
+        Path packageDir = Files.createDirectories(srcDir.resolve("demo"));
+        Path fooFile = Files.writeString(packageDir.resolve("Foo.java"), "package demo; public class Foo { public int foo() { return 0; } }");
+        TempModuleConfig tempConfig = new TempModuleConfig(srcDir);
+        ParserContext context = buildParser(tempConfig);
+        AstIndex index = context.astIndex();
+        MethodParser parser = context.methodParser();
+        assertTrue(parser.parseMethod("demo.Foo#foo()").getDependencies().isEmpty());
+
+        try (AstIndexWatcher watcher = new AstIndexWatcher(index, List.of(tempConfig.getModule()))) {
+            watcher.start();
+            Files.writeString(packageDir.resolve("Bar.java"), "package demo; public class Bar { public int bar() { return 1; } }");
+            Files.writeString(fooFile, "package demo; public class Foo { public int foo() { return new Bar().bar(); } }");
+
+            awaitUntil(() -> null != index.getInfoByClassName("demo.Bar"));
+            awaitUntil(() -> !parser.parseMethod("demo.Foo#foo()").getDependencies().isEmpty());
+            MethodInfo foo = parser.parseMethod("demo.Foo#foo()");
+            assertEquals("demo.Bar#bar()", foo.getDependencies().get(0).getCallee().getId().toString());
+
+            // 新建的子目录也要监听
+            Path subPackageDir = Files.createDirectories(packageDir.resolve("sub"));
+            Files.writeString(subPackageDir.resolve("Baz.java"), "package demo.sub; public class Baz {}");
+            awaitUntil(() -> null != index.getInfoByClassName("demo.sub.Baz"));
+
+            Files.delete(packageDir.resolve("Bar.java"));
+            awaitUntil(() -> null == index.getInfoByClassName("demo.Bar"));
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("等待源码变更同步到索引超时");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+}
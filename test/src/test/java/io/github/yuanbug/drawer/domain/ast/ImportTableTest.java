@@ -0,0 +1,58 @@
+package io.github.yuanbug.drawer.domain.ast;
+
+import io.github.yuanbug.drawer.BaseTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class ImportTableTest extends BaseTest {
+
+    @Test
+    void testResolveByImportsPackageAndJavaLang(@TempDir Path srcDir) throws IOException {
+        Path demoDir = Files.createDirectories(srcDir.resolve("demo"));
+        Path otherDir = Files.createDirectories(srcDir.resolve("other"));
+        File fooFile = Files.writeString(demoDir.resolve("Foo.java"), """
+                package demo;
+                import java.util.List;
+                import java.util.concurrent.*;
+                import other.*;
+                public class Foo {}
+                """).toFile();
+        Files.writeString(demoDir.resolve("Bar.java"), "package demo; public class Bar {}");
+        Files.writeString(otherDir.resolve("Baz.java"), "package other; public class Baz {}");
+        TempModuleConfig tempConfig = new TempModuleConfig(srcDir);
+        AstIndex index = astIndexContext(tempConfig, javaParser, typeSolver);
+
+        ImportTable table = index.getInfoByFile(fooFile).getImportTable();
+        assertSame(table, ImportTable.of(index.getInfoByFile(fooFile).getAst()));
+        // 单类型导入
+        assertEquals("java.util.List", table.resolve("List"));
+        // 同包类型
+        assertEquals("demo.Bar", table.resolve("Bar"));
+        // 按需导入，分别在索引和类路径中
+        assertEquals("other.Baz", table.resolve("Baz"));
+        assertEquals("java.util.concurrent.ConcurrentHashMap", table.resolve("ConcurrentHashMap"));
+        // java.lang
+        assertEquals("java.lang.String", table.resolve("String"));
+        assertNull(table.resolve("NotExists"));
+
+        // 索引中新增的类型
+        File quxFile = Files.writeString(otherDir.resolve("Qux.java"), "package other; public class Qux {}").toFile();
+        index.reindexFile(quxFile, tempConfig.getModule());
+        assertEquals("other.Qux", table.resolve("Qux"));
+        Files.delete(quxFile.toPath());
+        index.removeFileFromIndex(quxFile);
+        assertNull(index.findTypeNameInPackage("other", "Qux"));
+    }
+
+}
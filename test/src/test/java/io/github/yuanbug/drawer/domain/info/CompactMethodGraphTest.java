@@ -0,0 +1,36 @@
+package io.github.yuanbug.drawer.domain.info;
+
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.test.simple.SimpleClass;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class CompactMethodGraphTest extends BaseTest {
+
+    @Test
+    void whenBuildFromRecursionThenEdgesMatch() throws NoSuchMethodException {
+        String methodId = MethodId.from(SimpleClass.class.getMethod("recurse1", int.class)).toString();
+        CompactMethodGraph graph = CompactMethodGraph.of(methodParser.parseMethod(methodId));
+        assertEquals(3, graph.size());
+        assertEquals(methodId, graph.getMethodId(CompactMethodGraph.ROOT));
+        assertTrue(graph.hasDeclaration(CompactMethodGraph.ROOT));
+
+        int recurse2 = graph.getCallingTarget(graph.getCallingStart(CompactMethodGraph.ROOT));
+        assertTrue(graph.getMethodId(recurse2).endsWith("#recurse2(int)"));
+        assertEquals(MethodCallingType.SELF, graph.getCallingType(graph.getCallingStart(CompactMethodGraph.ROOT)));
+        assertFalse(graph.isRecursive(graph.getCallingStart(CompactMethodGraph.ROOT)));
+
+        int recurse3 = graph.getCallingTarget(graph.getCallingStart(recurse2));
+        assertEquals(1, graph.getCallingEnd(recurse3) - graph.getCallingStart(recurse3));
+        int recursion = graph.getCallingStart(recurse3);
+        assertTrue(graph.isRecursive(recursion));
+        assertEquals(CompactMethodGraph.ROOT, graph.getCallingTarget(recursion));
+        assertEquals(MethodCallingType.SELF, graph.getCallingType(recursion));
+        assertEquals(0, graph.getOverrideEnd(recurse3) - graph.getOverrideStart(recurse3));
+    }
+
+}
@@ -0,0 +1,81 @@
+package io.github.yuanbug.drawer.domain.info;
+
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.parser.MethodParser;
+import io.github.yuanbug.drawer.test.simple.SimpleClass;
+import io.github.yuanbug.drawer.utils.AnswerCheckUtils;
+import io.github.yuanbug.drawer.utils.HashUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class MethodGraphCacheTest extends BaseTest {
+
+    private static final String ANSWER = "answers/SimpleClass#forLoop().json";
+
+    @Test
+    void whenSourceUnchangedThenLoadFromCache(@TempDir Path cacheDir) throws IOException, NoSuchMethodException {
+        String methodId = MethodId.from(SimpleClass.class.getMethod("forLoop")).toString();
+        CompactMethodGraph graph = CompactMethodGraph.of(methodParser.parseMethod(methodId));
+        File sourceFile = Files.writeString(cacheDir.resolve("Source.java"), "class Source {}").toFile();
+        MethodGraphCache cache = new MethodGraphCache(cacheDir);
+        cache.save(methodId, graph, Map.of(sourceFile, HashUtils.sha256(sourceFile)), "types");
+
+        CompactMethodGraph loaded = cache.load(methodId, "types").orElseThrow();
+        AnswerCheckUtils.check(loaded.toMethodInfo(id -> methodParser.findMethod(id).orElse(null)), ANSWER);
+        assertTrue(cache.load(methodId, "other-types").isEmpty());
+
+        Files.writeString(sourceFile.toPath(), "class Source { void changed() {} }");
+        assertTrue(cache.load(methodId, "types").isEmpty());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void whenRestartThenParserReusesGraph(@TempDir Path cacheDir) throws IOException, NoSuchMethodException {
+        TestAstParsingConfig cachedConfig = new TestAstParsingConfig() {
+            @Override
+            public Path getAstCachePath() {
+                return cacheDir;
+            }
+        };
+        String methodId = MethodId.from(SimpleClass.class.getMethod("forLoop")).toString();
+        AnswerCheckUtils.check(new MethodParser(astIndex, cachedConfig).parseMethod(methodId), ANSWER);
+        try (var graphFiles = Files.list(cacheDir.resolve("method-graph"))) {
+            assertEquals(1, graphFiles.count());
+        }
+        MethodInfo reloaded = new MethodParser(astIndex, cachedConfig).parseMethod(methodId);
+        AnswerCheckUtils.check(reloaded, ANSWER);
+        assertNotNull(reloaded.getDeclaration());
+    }
+
+    @Test
+    void whenSourceEditedAfterParsingThenGraphNotReusedAfterRestart(@TempDir Path srcDir, @TempDir Path cacheDir) throws IOException {
+        Path packageDir = Files.createDirectories(srcDir.resolve("demo"));
+        Path fooFile = Files.writeString(packageDir.resolve("Foo.java"), "package demo; public class Foo { public int foo() { return bar(); } public int bar() { return 0; } public int baz() { return 1; } }");
+        TempModuleConfig cachedConfig = new TempModuleConfig(srcDir) {
+            @Override
+            public Path getAstCachePath() {
+                return cacheDir;
+            }
+        };
+        // 未开启监听，启动后修改的文件不会重新解析，调用图仍按启动时的AST生成
+        MethodParser parser = buildParser(cachedConfig).methodParser();
+        Files.writeString(fooFile, "package demo; public class Foo { public int foo() { return baz(); } public int bar() { return 0; } public int baz() { return 1; } }");
+        assertEquals("bar", parser.parseMethod("demo.Foo#foo()").getDependencies().get(0).getCallee().getId().getMethodName());
+
+        // 重启后AST按新内容解析，按旧AST生成的调用图不能再使用
+        MethodParser restarted = buildParser(cachedConfig).methodParser();
+        assertEquals("baz", restarted.parseMethod("demo.Foo#foo()").getDependencies().get(0).getCallee().getId().getMethodName());
+    }
+
+}
@@ -0,0 +1,30 @@
+package io.github.yuanbug.drawer.domain.info;
+
+import io.github.yuanbug.drawer.test.simple.SimpleClass;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class MethodIdTest {
+
+    @Test
+    void whenSameMethodThenSameInstance() throws NoSuchMethodException {
+        MethodId fromReflection = MethodId.from(SimpleClass.class.getMethod("simpleMethod", int.class, String.class));
+        MethodId parsed = MethodId.parse(SimpleClass.class.getName() + "#simpleMethod(int,java.lang.String)");
+        MethodId created = MethodId.of(SimpleClass.class.getName(), "simpleMethod", List.of("int", "java.lang.String"));
+        assertSame(fromReflection, parsed);
+        assertSame(fromReflection, created);
+        assertEquals(fromReflection.hashCode(), fromReflection.toString().hashCode());
+        assertSame(fromReflection.toString(), parsed.toString());
+
+        MethodId other = MethodId.from(SimpleClass.class.getMethod("doNothing"));
+        assertNotEquals(fromReflection, other);
+        assertTrue(other.getParamTypes().isEmpty());
+    }
+
+}
@@ -0,0 +1,40 @@
+package io.github.yuanbug.drawer.parser;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.test.simple.SimpleClass;
+import io.github.yuanbug.drawer.utils.AstUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class BatchCallResolverTest extends BaseTest {
+
+    @Test
+    void whenResolveInBatchThenSameAsOneByOne() {
+        BatchCallResolver resolver = new BatchCallResolver();
+        CompilationUnit ast = astIndex.getInfoByClassName(SimpleClass.class.getName()).getAst();
+        List<MethodCallExpr> callExpressions = ast.findAll(MethodCallExpr.class);
+        assertFalse(callExpressions.isEmpty());
+        for (MethodCallExpr callExpr : callExpressions) {
+            assertEquals(getSignature(AstUtils.tryResolve(callExpr)), getSignature(resolver.resolve(callExpr)));
+        }
+        ResolvedMethodDeclaration resolved = resolver.resolve(callExpressions.get(0));
+        assertSame(resolved, resolver.resolve(callExpressions.get(0)));
+
+        resolver.invalidateAll();
+        assertEquals(getSignature(resolved), getSignature(resolver.resolve(callExpressions.get(0))));
+    }
+
+    private static String getSignature(ResolvedMethodDeclaration method) {
+        return null == method ? null : method.getQualifiedSignature();
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.github.yuanbug.drawer.parser;
+
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.domain.info.MethodCallingType;
+import io.github.yuanbug.drawer.domain.info.MethodId;
+import io.github.yuanbug.drawer.test.impl.AbstractZeroGetter;
+import io.github.yuanbug.drawer.test.impl.ZeroGetterOne;
+import io.github.yuanbug.drawer.test.simple.SimpleClass;
+import io.github.yuanbug.drawer.test.simple.SimpleUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class CallerIndexTest extends BaseTest {
+
+    private final CallerIndex callerIndex = new CallerIndex(astIndex, config, methodParser);
+
+    @Test
+    void whenFindCallersThenFound() throws NoSuchMethodException {
+        Map<String, MethodCallingType> callers = callerIndex.getCallers(MethodId.toString(SimpleClass.class.getMethod("callUtils")));
+        assertEquals(Map.of(MethodId.toString(SimpleClass.class.getMethod("forLoop")), MethodCallingType.SELF), callers);
+
+        callers = callerIndex.getCallers(MethodId.toString(SimpleUtils.class.getMethod("getRandomString")));
+        assertEquals(Map.of(MethodId.toString(SimpleClass.class.getMethod("callUtils")), MethodCallingType.BROTHER), callers);
+
+        callers = callerIndex.getCallers(MethodId.toString(SimpleClass.class.getMethod("recurse1", int.class)));
+        assertEquals(Map.of(MethodId.toString(SimpleClass.class.getMethod("recurse3", int.class)), MethodCallingType.SELF), callers);
+    }
+
+    @Test
+    void whenCalledThroughParentThenFound() throws NoSuchMethodException {
+        Map<String, MethodCallingType> callers = callerIndex.getCallers(MethodId.toString(ZeroGetterOne.class.getDeclaredMethod("doGetZero")));
+        assertTrue(callers.containsKey(MethodId.toString(AbstractZeroGetter.class.getMethod("getZero"))));
+    }
+
+    @Test
+    void whenCalledInConstructorOrInitializerThenFound(@TempDir Path srcDir) throws IOException {
+        Path packageDir = Files.createDirectories(srcDir.resolve("demo"));
+        Files.writeString(packageDir.resolve("Bar.java"), "package demo; public class Bar { public static int bar() { return 0; } public static int baz() { return 0; } }");
+        Files.writeString(packageDir.resolve("Foo.java"), """
+                package demo;
+                import java.util.function.IntSupplier;
+                public class Foo {
+                    static int cached = Bar.bar();
+                    private final IntSupplier lazy = () -> Bar.baz();
+                    { Bar.bar(); }
+                    public Foo() { Bar.bar(); }
+                    public Foo(int x) { this(); }
+                    public Foo(long x) {}
+                }
+                """);
+        ParserContext context = buildParser(new TempModuleConfig(srcDir));
+        CallerIndex tempIndex = new CallerIndex(context.astIndex(), config, context.methodParser());
+
+        assertEquals(Set.of("demo.Foo#<clinit>()", "demo.Foo#<init>()", "demo.Foo#<init>(long)"), tempIndex.getCallers("demo.Bar#bar()").keySet());
+        // 字段初始化表达式中的lambda归入执行实例初始化的构造方法
+        assertEquals(Set.of("demo.Foo#<init>()", "demo.Foo#<init>(long)"), tempIndex.getCallers("demo.Bar#baz()").keySet());
+        // 构造方法的ID可以正常解析，其本身没有登记调用方
+        assertEquals(MethodId.CONSTRUCTOR_NAME, MethodId.parse("demo.Foo#<init>(long)").getMethodName());
+        assertTrue(tempIndex.getCallers("demo.Foo#<init>(long)").isEmpty());
+    }
+
+    @Test
+    void whenBuildingInBackgroundThenQueryHonoursTimeout() {
+        CallerIndex backgroundIndex = new CallerIndex(astIndex, config, methodParser);
+        // 占住构建需要的锁，构建尚未完成时查询按时限返回
+        synchronized (backgroundIndex) {
+            CompletableFuture<Void> building = backgroundIndex.buildInBackground();
+            assertSame(building, backgroundIndex.buildInBackground());
+            assertFalse(backgroundIndex.awaitBuilt(50));
+            assertFalse(backgroundIndex.isBuilt());
+        }
+        assertTrue(backgroundIndex.awaitBuilt(60_000));
+        assertTrue(backgroundIndex.isBuilt());
+        assertTrue(backgroundIndex.getCalleeCount() > 0);
+    }
+
+}
@@ -0,0 +1,57 @@
+package io.github.yuanbug.drawer.parser;
+
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.domain.info.MethodInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class DeepCallChainTest extends BaseTest {
+
+    private static final int CHAIN_LENGTH = 3000;
+
+    private static final long SMALL_STACK_SIZE = 160 * 1024;
+
+    @Test
+    void whenParseDeepChainOnSmallStackThenNoStackOverflow(@TempDir Path srcDir) throws IOException, InterruptedException {
+        Path packageDir = Files.createDirectories(srcDir.resolve("demo"));
+        StringBuilder code = new StringBuilder("package demo; public class Chain {");
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            code.append(" public int m").append(i).append("() { return ").append(i + 1 < CHAIN_LENGTH ? "m" + (i + 1) + "()" : "m0()").append("; }");
+        }
+        Files.writeString(packageDir.resolve("Chain.java"), code.append(" }"));
+        TempModuleConfig tempConfig = new TempModuleConfig(srcDir);
+        MethodParser parser = buildParser(tempConfig).methodParser();
+
+        AtomicReference<MethodInfo> result = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                result.set(parser.parseMethod("demo.Chain#m0()"));
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        }, "deep-call-chain", SMALL_STACK_SIZE);
+        thread.start();
+        thread.join();
+        assertNull(error.get());
+
+        MethodInfo current = result.get();
+        for (int i = 1; i < CHAIN_LENGTH; i++) {
+            current = current.getDependencies().get(0).getCallee();
+            assertEquals("demo.Chain#m" + i + "()", current.getId().toString());
+        }
+        // 最后一个方法调回入口，按递归处理
+        assertEquals("demo.Chain#m0()", current.getDependencies().get(0).getRecursiveAt());
+    }
+
+}
@@ -21,7 +21,7 @@ public class GenericMethodFindingTest extends BaseTest {
     }
 
     private void test(String methodName, String findByTypeName, String expectedParamType) {
-        MethodDeclaration result = methodParser.findMethod(new MethodId(
+        MethodDeclaration result = methodParser.findMethod(MethodId.of(
                 GenericMethodFinding.class.getName(),
                 methodName,
                 List.of(findByTypeName)
@@ -8,7 +8,7 @@ import io.github.yuanbug.drawer.test.generic.GenericWithMethodTemplatePattern;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author yuanbug
@@ -51,4 +51,18 @@ public class InheritMethodParserTest extends BaseTest {
         );
     }
 
+    @Test
+    @SneakyThrows
+    void testParseAgainUseCache() {
+        MethodId methodId = MethodId.from(GenericWithMethodTemplatePattern.LoginService.class.getDeclaredMethod("doHandle", GenericWithMethodTemplatePattern.LoginForm.class));
+        MethodDeclaration doHandle = methodParser.findMethod(methodId).orElseThrow();
+        InheritMethodParser inheritMethodParser = new InheritMethodParser(astIndex);
+
+        MethodInheritLinkInfo result = inheritMethodParser.parseParentMethods(doHandle);
+
+        assertSame(result, inheritMethodParser.parseParentMethods(doHandle));
+        inheritMethodParser.clearCache();
+        assertNotSame(result, inheritMethodParser.parseParentMethods(doHandle));
+    }
+
 }
@@ -55,7 +55,7 @@ public class LombokParserTest extends BaseTest {
         Set<String> methods = info.getMethods().keySet();
 
         assertEquals(1, methods.size());
-        assertFalse(methods.contains(new MethodId(SetterAnnotationOnFieldParse.class.getName(), "setId", List.of("java.lang.String")).toString()));
+        assertFalse(methods.contains(MethodId.of(SetterAnnotationOnFieldParse.class.getName(), "setId", List.of("java.lang.String")).toString()));
         assertFalse(methods.contains(MethodId.toString(SetterAnnotationOnFieldParse.class.getDeclaredMethod("setAge", Integer.class))));
         assertTrue(methods.contains(MethodId.toString(SetterAnnotationOnFieldParse.class.getDeclaredMethod("setName", String.class))));
     }
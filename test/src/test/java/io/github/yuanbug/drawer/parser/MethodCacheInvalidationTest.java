@@ -0,0 +1,51 @@
+package io.github.yuanbug.drawer.parser;
+
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.domain.ast.AstIndex;
+import io.github.yuanbug.drawer.domain.info.CompactMethodGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class MethodCacheInvalidationTest extends BaseTest {
+
+    @Test
+    void whenFileChangedThenOnlyAffectedMethodsEvicted(@TempDir Path srcDir) throws IOException {
+        Path packageDir = Files.createDirectories(srcDir.resolve("demo"));
+        Files.writeString(packageDir.resolve("Foo.java"), "package demo; public class Foo { public int foo() { return new Bar().bar(); } }");
+        Files.writeString(packageDir.resolve("Bar.java"), "package demo; public class Bar { public int bar() { return new Baz().baz(); } }").toFile();
+        File bazFile = Files.writeString(packageDir.resolve("Baz.java"), "package demo; public class Baz { public int baz() { return 0; } }").toFile();
+        File quxFile = Files.writeString(packageDir.resolve("Qux.java"), "package demo; public class Qux { public int qux() { return 1; } }").toFile();
+        TempModuleConfig tempConfig = new TempModuleConfig(srcDir);
+        ParserContext context = buildParser(tempConfig);
+        AstIndex index = context.astIndex();
+        MethodParser parser = context.methodParser();
+
+        CompactMethodGraph foo = parser.parseMethodGraph("demo.Foo#foo()");
+        CompactMethodGraph bar = parser.parseMethodGraph("demo.Bar#bar()");
+        CompactMethodGraph qux = parser.parseMethodGraph("demo.Qux#qux()");
+        assertEquals("demo.Bar#bar()", parser.parseMethod("demo.Foo#foo()").getDependencies().get(0).getCallee().getId().toString());
+
+        Files.writeString(quxFile.toPath(), "package demo; public class Qux { public int qux() { return 2; } }");
+        index.reindexFile(quxFile, tempConfig.getModule());
+        assertSame(foo, parser.parseMethodGraph("demo.Foo#foo()"));
+        assertSame(bar, parser.parseMethodGraph("demo.Bar#bar()"));
+        assertNotSame(qux, parser.parseMethodGraph("demo.Qux#qux()"));
+
+        // Baz只被Bar直接调用，Foo通过Bar间接用到，都要清除
+        Files.writeString(bazFile.toPath(), "package demo; public class Baz { public int baz() { return 3; } }");
+        index.reindexFile(bazFile, tempConfig.getModule());
+        assertNotSame(bar, parser.parseMethodGraph("demo.Bar#bar()"));
+        assertNotSame(foo, parser.parseMethodGraph("demo.Foo#foo()"));
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.yuanbug.drawer.parser;
+
+import com.github.javaparser.ast.body.TypeDeclaration;
+import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.domain.CodeModule;
+import io.github.yuanbug.drawer.domain.ast.AstIndex;
+import io.github.yuanbug.drawer.domain.info.MethodCallingType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class MethodCallingTypeMemoTest extends BaseTest {
+
+    @Test
+    void whenTypeMovedToOtherModuleThenCallingTypeChanged(@TempDir Path srcDir) throws IOException {
+        Path moduleA = Files.createDirectories(srcDir.resolve("a"));
+        Path moduleB = Files.createDirectories(srcDir.resolve("b"));
+        Files.writeString(Files.createDirectories(moduleA.resolve("demo")).resolve("Foo.java"), "package demo; public class Foo { public int foo() { return new Bar().bar(); } }");
+        File barInA = Files.writeString(moduleA.resolve("demo").resolve("Bar.java"), "package demo; public class Bar { public int bar() { return 0; } }").toFile();
+        TwoModuleConfig tempConfig = new TwoModuleConfig(moduleA, moduleB);
+        ParserContext context = buildParser(tempConfig);
+        AstIndex index = context.astIndex();
+        MethodParser parser = context.methodParser();
+
+        TypeDeclaration<?> foo = index.getTypeDeclarationByClassName("demo.Foo");
+        assertEquals(MethodCallingType.BROTHER, parser.judgeMethodCallingType("demo.Bar", foo));
+        // 第二次命中缓存，结果不变
+        assertEquals(MethodCallingType.BROTHER, parser.judgeMethodCallingType("demo.Bar", foo));
+
+        // 把Bar移到另一个模块，索引变化后缓存要清除
+        File barInB = Files.writeString(Files.createDirectories(moduleB.resolve("demo")).resolve("Bar.java"), Files.readString(barInA.toPath())).toFile();
+        Files.delete(barInA.toPath());
+        index.removeFileFromIndex(barInA);
+        index.reindexFile(barInB, tempConfig.moduleB);
+        assertEquals("b", index.getModuleNameByTypeName("demo.Bar"));
+        assertEquals(MethodCallingType.OUT, parser.judgeMethodCallingType("demo.Bar", foo));
+        assertEquals(MethodCallingType.OUT, parser.judgeMethodCallingType("demo.Bar", foo));
+    }
+
+    private static class TwoModuleConfig extends TestAstParsingConfig {
+
+        private final CodeModule moduleA;
+
+        private final CodeModule moduleB;
+
+        TwoModuleConfig(Path srcDirA, Path srcDirB) {
+            this.moduleA = buildModule("a", srcDirA);
+            this.moduleB = buildModule("b", srcDirB);
+        }
+
+        private static CodeModule buildModule(String name, Path srcDir) {
+            return CodeModule.builder()
+                    .name(name)
+                    .srcMainJavaPath(srcDir)
+                    .compileDependencyJars(Collections.emptyList())
+                    .build();
+        }
+
+        @Override
+        public List<CodeModule> getModules() {
+            return List.of(moduleA, moduleB);
+        }
+
+    }
+
+}
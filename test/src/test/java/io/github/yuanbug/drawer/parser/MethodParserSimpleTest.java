@@ -2,15 +2,27 @@ package io.github.yuanbug.drawer.parser;
 
 import com.github.javaparser.ast.body.MethodDeclaration;
 import io.github.yuanbug.drawer.BaseTest;
+import io.github.yuanbug.drawer.domain.info.CompactMethodGraph;
+import io.github.yuanbug.drawer.domain.info.MethodCalling;
+import io.github.yuanbug.drawer.domain.info.MethodGraphParsingResult;
 import io.github.yuanbug.drawer.domain.info.MethodId;
 import io.github.yuanbug.drawer.domain.info.MethodInfo;
+import io.github.yuanbug.drawer.domain.info.MethodParsingResult;
 import io.github.yuanbug.drawer.test.simple.SimpleClass;
 import io.github.yuanbug.drawer.utils.AnswerCheckUtils;
 import io.github.yuanbug.drawer.utils.JacksonUtils;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * @author yuanbug
@@ -47,4 +59,142 @@ class MethodParserSimpleTest extends BaseTest {
         AnswerCheckUtils.check(methodInfo, "answers/SimpleClass#recurse1(int).json");
     }
 
+    @Test
+    void whenParseConcurrentlyThenShareResult() throws Exception {
+        String methodId = MethodId.from(SimpleClass.class.getMethod("forLoop")).toString();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CompactMethodGraph>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> methodParser.parseMethodGraph(methodId)));
+            }
+            CompactMethodGraph first = futures.get(0).get();
+            for (Future<CompactMethodGraph> future : futures) {
+                assertSame(first, future.get());
+            }
+            AnswerCheckUtils.check(methodParser.parseMethod(methodId), "answers/SimpleClass#forLoop().json");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenParseConcurrentlyWithDeadlineThenParseOnce() throws Exception {
+        String methodId = MethodId.from(SimpleClass.class.getMethod("forLoop")).toString();
+        AtomicInteger parseCount = new AtomicInteger();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MethodParser parser = new MethodParser(astIndex, config) {
+            @Override
+            protected List<MethodDeclaration> findOverrideMethods(MethodDeclaration method) {
+                if ("forLoop".equals(method.getNameAsString())) {
+                    parseCount.incrementAndGet();
+                    entered.countDown();
+                    try {
+                        assertTrue(release.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.findOverrideMethods(method);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MethodGraphParsingResult> first = executor.submit(() -> parser.parseMethodGraph(methodId, Integer.MAX_VALUE, Integer.MAX_VALUE, 60_000));
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            // 第一个请求还在解析中，第二个请求应等待它的结果而不是重新解析
+            Future<MethodGraphParsingResult> second = executor.submit(() -> parser.parseMethodGraph(methodId, Integer.MAX_VALUE, Integer.MAX_VALUE, 60_000));
+            Thread.sleep(200);
+            release.countDown();
+            assertFalse(first.get().isTruncated());
+            assertFalse(second.get().isTruncated());
+            assertSame(first.get().getGraph(), second.get().getGraph());
+            assertEquals(1, parseCount.get());
+            AnswerCheckUtils.check(parser.parseMethod(methodId), "answers/SimpleClass#forLoop().json");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenParseWithDepthLimitThenFrontierExpandable() throws NoSuchMethodException {
+        String methodId = MethodId.from(SimpleClass.class.getMethod("forLoop")).toString();
+        MethodInfo limited = methodParser.parseMethod(methodId, 1, 100);
+        assertFalse(limited.isExpandable());
+        MethodInfo callUtils = limited.getDependencies().stream()
+                .map(MethodCalling::getCallee)
+                .filter(callee -> callee.getId().getMethodName().equals("callUtils"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(callUtils.isExpandable());
+        assertTrue(callUtils.getDependencies().isEmpty());
+
+        MethodInfo expanded = methodParser.parseMethod(callUtils.getId().toString(), 1, 100);
+        assertEquals(1, expanded.getDependencies().size());
+        assertTrue(expanded.getDependencies().get(0).getCallee().isExpandable());
+
+        // 限制解析的结果不进入缓存
+        AnswerCheckUtils.check(methodParser.parseMethod(methodId), "answers/SimpleClass#forLoop().json");
+    }
+
+    @Test
+    void whenParseWithTimeoutThenTruncatedOrCached() throws NoSuchMethodException {
+        String methodId = MethodId.from(SimpleClass.class.getMethod("forLoop")).toString();
+        // 线程已被中断时与超时一样立即停止展开
+        Thread.currentThread().interrupt();
+        MethodParsingResult truncated;
+        try {
+            truncated = methodParser.parseMethod(methodId, Integer.MAX_VALUE, Integer.MAX_VALUE, 60_000);
+        } finally {
+            Thread.interrupted();
+        }
+        assertTrue(truncated.isTruncated());
+        assertTrue(truncated.getMethodInfo().isExpandable());
+        assertTrue(truncated.getMethodInfo().getDependencies().isEmpty());
+
+        MethodParsingResult completed = methodParser.parseMethod(methodId, Integer.MAX_VALUE, Integer.MAX_VALUE, 60_000);
+        assertFalse(completed.isTruncated());
+        AnswerCheckUtils.check(completed.getMethodInfo(), "answers/SimpleClass#forLoop().json");
+        // 按时完成的完整结果进入缓存
+        CompactMethodGraph cached = methodParser.parseMethodGraph(methodId);
+        assertSame(cached, methodParser.parseMethodGraph(methodId, Integer.MAX_VALUE, Integer.MAX_VALUE, 60_000).getGraph());
+    }
+
+    @Test
+    void whenCacheFullThenEvictAndParseAgain() throws NoSuchMethodException {
+        MethodParser smallCacheParser = new MethodParser(astIndex, new TestAstParsingConfig() {
+            @Override
+            public long getMethodCacheMaximumWeight() {
+                return 2;
+            }
+        });
+        String methodId = MethodId.from(SimpleClass.class.getMethod("forLoop")).toString();
+        AnswerCheckUtils.check(smallCacheParser.parseMethod(methodId), "answers/SimpleClass#forLoop().json");
+        assertTrue(smallCacheParser.getMethodCacheStats().evictionCount() > 0);
+        AnswerCheckUtils.check(smallCacheParser.parseMethod(methodId), "answers/SimpleClass#forLoop().json");
+    }
+
+    @Test
+    void whenCacheFullThenEvictWholeGraph() throws NoSuchMethodException {
+        String forLoop = MethodId.from(SimpleClass.class.getMethod("forLoop")).toString();
+        String recurse = MethodId.from(SimpleClass.class.getMethod("recurse1", int.class)).toString();
+        int forLoopSize = methodParser.parseMethodGraph(forLoop).size();
+        MethodParser smallCacheParser = new MethodParser(astIndex, new TestAstParsingConfig() {
+            @Override
+            public long getMethodCacheMaximumWeight() {
+                return forLoopSize;
+            }
+        });
+        // 权重按整张调用图计算，图中的其它方法不单独缓存
+        CompactMethodGraph parsed = smallCacheParser.parseMethodGraph(forLoop);
+        assertSame(parsed, smallCacheParser.parseMethodGraph(forLoop));
+        assertEquals(0, smallCacheParser.getMethodCacheStats().evictionCount());
+
+        smallCacheParser.parseMethod(recurse);
+        assertEquals(1, smallCacheParser.getMethodCacheStats().evictionCount());
+        assertNotSame(parsed, smallCacheParser.parseMethodGraph(forLoop));
+    }
+
 }
@@ -0,0 +1,42 @@
+package io.github.yuanbug.drawer.parser.solver;
+
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+class ProjectTypeSolverTest {
+
+    @Test
+    void whenSolveTypeThenRouteByPackage(@TempDir Path srcDir) throws IOException {
+        Files.writeString(Files.createDirectories(srcDir.resolve("demo")).resolve("Foo.java"), "package demo; public class Foo { public static class Inner {} }");
+        ProjectTypeSolver typeSolver = new ProjectTypeSolver(new ReflectionTypeSolver(true));
+        typeSolver.addSourceRoot(srcDir);
+
+        assertTrue(typeSolver.tryToSolveType("demo.Foo").isSolved());
+        assertTrue(typeSolver.tryToSolveType("demo.Foo.Inner").isSolved());
+        assertTrue(typeSolver.tryToSolveType("java.lang.String").isSolved());
+        assertFalse(typeSolver.tryToSolveType("demo.Missing").isSolved());
+
+        long hitCount = typeSolver.getTypeCacheStats().hitCount();
+        assertFalse(typeSolver.tryToSolveType("demo.Missing").isSolved());
+        assertEquals(hitCount + 1, typeSolver.getTypeCacheStats().hitCount());
+
+        // 新增的包在变更通知后登记
+        File newFile = Files.writeString(Files.createDirectories(srcDir.resolve("other")).resolve("Bar.java"), "package other; public class Bar {}").toFile();
+        assertFalse(typeSolver.tryToSolveType("other.Bar").isSolved());
+        typeSolver.invalidate(List.of(newFile));
+        assertTrue(typeSolver.tryToSolveType("other.Bar").isSolved());
+    }
+
+}
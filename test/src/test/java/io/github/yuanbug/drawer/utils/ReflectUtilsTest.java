@@ -0,0 +1,71 @@
+package io.github.yuanbug.drawer.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author yuanbug
+ */
+public class ReflectUtilsTest {
+
+    @Test
+    void testFindAllInterfaces() {
+        List<Class<?>> interfaces = ReflectUtils.findAllInterfaces(ArrayList.class);
+        assertTrue(interfaces.contains(List.class));
+        assertTrue(interfaces.contains(Collection.class));
+        assertTrue(interfaces.contains(Iterable.class));
+        assertTrue(interfaces.contains(RandomAccess.class));
+        assertTrue(interfaces.contains(Serializable.class));
+        assertEquals(interfaces.size(), interfaces.stream().distinct().count());
+        // 同一个类只计算一次
+        assertSame(interfaces, ReflectUtils.findAllInterfaces(ArrayList.class));
+        assertThrows(UnsupportedOperationException.class, () -> interfaces.add(Object.class));
+    }
+
+    @Test
+    void testDeclaredMembers() {
+        List<Method> methods = ReflectUtils.getDeclaredMethods(String.class, "valueOf");
+        assertFalse(methods.isEmpty());
+        assertTrue(methods.stream().allMatch(method -> "valueOf".equals(method.getName())));
+        assertTrue(ReflectUtils.getDeclaredMethods(String.class, "notExists").isEmpty());
+        assertEquals(String.class.getDeclaredMethods().length, ReflectUtils.getDeclaredMethods(String.class).size());
+
+        assertEquals(Integer.class.getDeclaredFields().length, ReflectUtils.getDeclaredFields(Integer.class).size());
+        assertNotNull(ReflectUtils.getDeclaredField(Integer.class, "value"));
+        assertNull(ReflectUtils.getDeclaredField(Integer.class, "notExists"));
+    }
+
+    @Test
+    void testGetFieldByName() {
+        // 父类中的字段
+        Field field = ReflectUtils.getFieldByName("value", Child.class);
+        assertNotNull(field);
+        assertEquals(Parent.class, field.getDeclaringClass());
+        // 接口中的常量
+        Field constant = ReflectUtils.getFieldByName("CONSTANT", Child.class);
+        assertNotNull(constant);
+        assertEquals(WithConstant.class, constant.getDeclaringClass());
+        assertNull(ReflectUtils.getFieldByName("notExists", Child.class));
+    }
+
+    interface WithConstant {
+        String CONSTANT = "constant";
+    }
+
+    static class Parent implements WithConstant {
+        int value;
+    }
+
+    static class Child extends Parent {
+    }
+
+}